@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+# 시작 시간 측정: 프로세스를 띄운 시점부터 GET /v1/members 가 처음 200 을 돌려줄 때까지.
+# plain / cds / aot / aot+cds 를 같은 jar 로 RUNS 번씩 띄우고, JDK 가 CRaC 을 지원하면 crac 복원도 잰다.
+# cds 는 AOT 를 끈 채로 학습한 아카이브를 따로 만들어 쓴다. cdsArchive 의 아카이브는 AOT 를 켜고 학습한 것이라
+# AOT 없이 쓰면 로드되는 클래스가 달라서 CDS 만의 효과를 잴 수 없다.
+#
+#   scripts/startup-benchmark.sh            # RUNS=5, PORT=18080
+#   RUNS=10 JAVA=/opt/jdk/bin/java scripts/startup-benchmark.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+JAVA=${JAVA:-java}
+URL="http://localhost:${PORT}/v1/members"
+LOG_DIR=build/startup-benchmark
+
+./gradlew -q -PfastStartup bootJar cdsArchive
+
+JAR=$(ls build/libs/*.jar | grep -v -- '-plain.jar' | head -1)
+CDS_JAR=build/cds/$(basename "$JAR")
+mkdir -p "$LOG_DIR"
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# measure <이름> <명령...> : 명령을 RUNS 번 띄워서 첫 응답까지 걸린 시간의 중앙값과 최솟값을 찍는다
+measure() {
+    local name=$1
+    shift
+    local times=()
+    for ((i = 1; i <= RUNS; i++)); do
+        local start pid end
+        start=$(now_ms)
+        "$@" >"$LOG_DIR/$name.log" 2>&1 &
+        pid=$!
+        until curl -fs -o /dev/null "$URL"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$name: 응답 전에 종료됨 ($LOG_DIR/$name.log)" >&2
+                return 1
+            fi
+            sleep 0.01
+        done
+        end=$(now_ms)
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        times+=($((end - start)))
+    done
+
+    local sorted median
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    median=$(echo "$sorted" | sed -n "$(((RUNS + 1) / 2))p")
+    printf '%-8s median=%6d ms  min=%6d ms  runs=[%s]\n' \
+        "$name" "$median" "$(echo "$sorted" | head -1)" "${times[*]}"
+}
+
+echo "jar=$JAR runs=$RUNS java=$("$JAVA" -version 2>&1 | head -1)"
+
+measure plain "$JAVA" -jar "$JAR" --server.port="$PORT"
+
+# cdsArchive 와 같은 방식(풀어놓은 jar, build/cds 에서 실행)으로 AOT 없이 학습한다
+rm -f build/cds/application-plain.jsa
+(cd build/cds && "$JAVA" -XX:ArchiveClassesAtExit=application-plain.jsa -Dspring.context.exit=onRefresh \
+    -jar "$(basename "$JAR")" >"../../$LOG_DIR/cds-training.log" 2>&1)
+measure cds "$JAVA" -XX:SharedArchiveFile=build/cds/application-plain.jsa \
+    -jar "$CDS_JAR" --server.port="$PORT"
+measure aot "$JAVA" -Dspring.aot.enabled=true -jar "$JAR" --server.port="$PORT"
+measure aot+cds "$JAVA" -XX:SharedArchiveFile=build/cds/application.jsa -Dspring.aot.enabled=true \
+    -jar "$CDS_JAR" --server.port="$PORT"
+
+# CRaC: refresh 직후 체크포인트를 남기고 종료한 뒤, 그 이미지에서 복원한다. 포트는 체크포인트 시점에 정해진다
+if "$JAVA" -XX:CRaCCheckpointTo="$LOG_DIR/crac-probe" -version >/dev/null 2>&1; then
+    rm -rf build/crac
+    "$JAVA" -XX:CRaCCheckpointTo=build/crac -Dspring.context.checkpoint=onRefresh -Dspring.aot.enabled=true \
+        -jar "$JAR" --server.port="$PORT" >"$LOG_DIR/crac-checkpoint.log" 2>&1 || true
+    measure crac "$JAVA" -XX:CRaCRestoreFrom=build/crac
+else
+    echo "crac     건너뜀 (JDK 가 CRaC 을 지원하지 않음)"
+fi
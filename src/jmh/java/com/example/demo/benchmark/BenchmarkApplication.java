@@ -0,0 +1,47 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+/**
+ * 벤치마크마다 앱을 웹 서버 없이 띄운다. load 프로파일이라 InitMember 시드와 동시 처리 한도는 꺼져 있다.
+ * 벤치마크 클래스마다 따로 메모리 DB 를 쓴다
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(Class<?> benchmark, String... properties) {
+        return builder(benchmark).properties(properties).run();
+    }
+
+    /**
+     * 프로파일을 더 켜야 할 때(sql 등) 쓴다
+     */
+    public static SpringApplicationBuilder builder(Class<?> benchmark) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("load")
+                .properties("spring.datasource.url=jdbc:h2:mem:" + benchmark.getSimpleName(),
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.org.hibernate.SQL=warn");
+    }
+
+    /**
+     * 한 트랜잭션에서 work 를 실행하고 커밋한다. 많이 넣을 때는 work 안에서 flush/clear 한다
+     */
+    public static void inTransaction(ConfigurableApplicationContext context, Consumer<EntityManager> work) {
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                work.accept(EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberRepository;
+import com.example.demo.repository.PageCountMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10만 명에서 순차 count 와 동시 count 의 페이지 응답 시간을 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberPageCountBenchmark {
+
+    @Param({"SEQUENTIAL", "CONCURRENT"})
+    PageCountMode countMode;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(MemberPageCountBenchmark.class);
+        BenchmarkApplication.inTransaction(context, em -> {
+            Team benchTeam = new Team("benchTeam");
+            em.persist(benchTeam);
+            for (int i = 0; i < 100_000; i++) {
+                em.persist(new Member("benchMember" + i, i % 100, benchTeam));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    benchTeam = em.getReference(Team.class, benchTeam.getId());
+                }
+            }
+        });
+        memberRepository = context.getBean(MemberRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("benchTeam");
+        condition.setAgeGoe(10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> page() {
+        return memberRepository.searchPageComplex(condition, PageRequest.of(1, 20), countMode);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.QMemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberJpaRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+
+/**
+ * 실제 검색 한 번에 드는 할당을 공유 식({@link com.example.demo.repository.MemberSearchExpressions})과
+ * 검색마다 프로젝션/alias/count 를 새로 만드는 경우로 비교한다. 두 쿼리의 JPQL 은 같다.
+ * <p>
+ * ./gradlew jmh -Pjmh.includes=MemberSearchAllocation -Pjmh.profilers=gc 로 돌리고 gc.alloc.rate.norm(bytes/op)을 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberSearchAllocationBenchmark {
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    JPAQueryFactory queryFactory;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(MemberSearchAllocationBenchmark.class);
+        BenchmarkApplication.inTransaction(context, em -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 1_000; i++) {
+                em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> shared() {
+        return memberJpaRepository.search(condition);
+    }
+
+    /**
+     * 공유 전에 검색마다 하던 것처럼 프로젝션, alias, count 를 새로 만든다
+     */
+    @Benchmark
+    public List<MemberTeamDto> fresh() {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        team.name.eq(condition.getTeamName()),
+                        member.age.goe(condition.getAgeGoe()),
+                        member.age.loe(condition.getAgeLoe()))
+                .fetch();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.index.MemberSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 5만 명에서 메모리 색인 조회와 Querydsl 조회를 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberSearchIndexBenchmark {
+
+    ConfigurableApplicationContext context;
+    MemberSearchIndex memberSearchIndex;
+    MemberJpaRepository memberJpaRepository;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(MemberSearchIndexBenchmark.class, "member.search-index.enabled=true");
+        BenchmarkApplication.inTransaction(context, em -> {
+            Team benchTeam = new Team("benchTeam");
+            em.persist(benchTeam);
+            for (int i = 0; i < 50_000; i++) {
+                em.persist(new Member("bench" + (i % 1000), i % 100, i % 2 == 0 ? benchTeam : null));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    benchTeam = em.getReference(Team.class, benchTeam.getId());
+                }
+            }
+        });
+        memberSearchIndex = context.getBean(MemberSearchIndex.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberSearchIndex.rebuild();
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("benchTeam");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> index() {
+        return memberSearchIndex.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> querydsl() {
+        return memberJpaRepository.search(condition);
+    }
+}
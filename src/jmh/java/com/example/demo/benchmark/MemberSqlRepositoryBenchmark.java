@@ -0,0 +1,82 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberRepository;
+import com.example.demo.repository.MemberRepositoryCustom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 5만 명에서 querydsl-sql(sql 프로파일의 MemberSqlRepository)과 Querydsl JPA 검색을 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberSqlRepositoryBenchmark {
+
+    ConfigurableApplicationContext context;
+    MemberRepositoryCustom memberRepositoryCustom;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.builder(MemberSqlRepositoryBenchmark.class)
+                .profiles("sql")
+                .run();
+        BenchmarkApplication.inTransaction(context, em -> {
+            Team benchTeam = new Team("sqlBenchTeam");
+            em.persist(benchTeam);
+            for (int i = 0; i < 50_000; i++) {
+                em.persist(new Member("sqlBench" + i, i % 100, benchTeam));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    benchTeam = em.getReference(Team.class, benchTeam.getId());
+                }
+            }
+        });
+        memberRepositoryCustom = context.getBean(MemberRepositoryCustom.class);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("sqlBenchTeam");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> querydslSql() {
+        return memberRepositoryCustom.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> querydslJpa() {
+        return memberRepository.search(condition);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.BinaryEncodingConfig;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.MemberTeamField;
+import com.example.demo.dto.MemberTeamRows;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 형식마다 1만 행을 DTO 목록 기본 직렬화 / MemberTeamDtoSerializer / MemberTeamRows 로 쓸 때의 시간을 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberTeamEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    MemberTeamRows rows;
+    List<MemberTeamDto> dtos;
+    ObjectMapper reflective;
+    ObjectMapper serializer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonFactory factory = switch (format) {
+            case "smile" -> BinaryEncodingConfig.smileFactory();
+            case "cbor" -> BinaryEncodingConfig.cborFactory();
+            default -> new JsonFactory();
+        };
+        reflective = new ObjectMapper(factory.copy());
+        serializer = new ObjectMapper(factory.copy()).registerModule(BinaryEncodingConfig.binaryModule());
+
+        rows = new MemberTeamRows(MemberTeamField.of(null), 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            long teamId = i % 10;
+            rows.addRow((long) i, "member" + i, i % 100, teamId == 0 ? null : teamId, teamId == 0 ? null : "team" + teamId);
+        }
+        dtos = new ArrayList<>(rows);
+    }
+
+    @Benchmark
+    public byte[] dtoReflective() throws JsonProcessingException {
+        return reflective.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] dtoSerializer() throws JsonProcessingException {
+        return serializer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] rows() throws JsonProcessingException {
+        return serializer.writeValueAsBytes(rows);
+    }
+}
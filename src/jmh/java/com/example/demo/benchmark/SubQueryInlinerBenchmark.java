@@ -0,0 +1,87 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.QMember;
+import com.example.demo.repository.support.SubQueryInliner;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.entity.QMember.member;
+import static com.querydsl.jpa.JPAExpressions.select;
+
+/**
+ * 2만 명에서 select 절 스칼라 서브쿼리와 IN 서브쿼리를 그대로 실행할 때와 {@link SubQueryInliner} 로 미리 구해 넣을 때를 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubQueryInlinerBenchmark {
+
+    QMember memberSub = new QMember("memberSub");
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory query;
+    SubQueryInliner inliner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(SubQueryInlinerBenchmark.class);
+        BenchmarkApplication.inTransaction(context, em -> {
+            for (int i = 0; i < 20_000; i++) {
+                em.persist(new Member("bench" + i, i % 100));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        query = new JPAQueryFactory(em);
+        inliner = new SubQueryInliner(em);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Tuple> subQuery() {
+        return selectWithSubQuery().fetch();
+    }
+
+    @Benchmark
+    public List<Tuple> inlined() {
+        return inliner.inline(selectWithSubQuery()).fetch();
+    }
+
+    private JPAQuery<Tuple> selectWithSubQuery() {
+        return query
+                .select(member.username, select(memberSub.age.avg()).from(memberSub))
+                .from(member)
+                .where(member.age.in(select(memberSub.age).from(memberSub).where(memberSub.age.gt(50))));
+    }
+}
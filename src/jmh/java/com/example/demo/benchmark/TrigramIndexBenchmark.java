@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.UsernameMatch;
+import com.example.demo.repository.ngram.TrigramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100만 건에서 트라이그램 색인 조회와 전체 비교(scan)를 fragment 별로 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TrigramIndexBenchmark {
+
+    @Param({"12345", "9876", "abcd", "xyzw", "ber777"})
+    String fragment;
+
+    TrigramIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int members = 1_000_000;
+        Random random = new Random(1);
+        index = new TrigramIndex();
+        for (long id = 0; id < members; id++) {
+            index.put(id, "member" + random.nextInt(members * 10) + randomUsername(random));
+        }
+    }
+
+    @Benchmark
+    public List<Long> index() {
+        return index.search(fragment, UsernameMatch.CONTAINS, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Long> scan() {
+        return index.scan(fragment, UsernameMatch.CONTAINS);
+    }
+
+    private static String randomUsername(Random random) {
+        String alphabet = "abcAB";
+        StringBuilder username = new StringBuilder(random.nextBoolean() ? "member" : "");
+        int length = 1 + random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            username.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return username.toString();
+    }
+}
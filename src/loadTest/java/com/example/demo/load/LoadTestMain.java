@@ -0,0 +1,90 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemberController 부하 테스트.
+ * target 이 없으면 앱을 같은 JVM 에 임의 포트로 띄우고 별도 H2 에 시드 데이터를 넣은 뒤, mix 대로 고정 도착률 트래픽을 보낸다.
+ * 결과는 {@link LoadTestReport} 참고.
+ * <pre>
+ * ./gradlew loadTest -Pload.rate=500 -Pload.duration=60 -Pload.mix=search=50,slice=50
+ * ./gradlew loadTest -Pload.target=http://localhost:8080   # 이미 떠 있는 앱 (시드는 넣지 않는다)
+ * </pre>
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("load test: " + options);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.target;
+        long minMemberId = 1;
+        long maxMemberId = options.members;
+        try {
+            if (baseUrl.isEmpty()) {
+                // load 프로파일(application-load.yml)은 InitMember 시드와 동시 처리 한도를 끈다
+                context = new SpringApplicationBuilder(DemoApplication.class)
+                        .profiles("load")
+                        .properties(
+                                "server.port=0",
+                                "spring.datasource.url=jdbc:h2:mem:loadtest",
+                                "spring.jpa.properties.hibernate.format_sql=false",
+                                "logging.level.org.hibernate.SQL=warn")
+                        .run();
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+                long seedStart = System.nanoTime();
+                long[] range = new LoadTestSeeder(context).seed(options.members, options.teams);
+                minMemberId = range[0];
+                maxMemberId = range[1];
+                System.out.printf("seeded %d members in %d ms%n", options.members, (System.nanoTime() - seedStart) / 1_000_000);
+            }
+
+            List<String> replayPaths = reachable(baseUrl, TrafficMix.readReplayPaths(options.httpFile));
+            TrafficMix mix = new TrafficMix(options, minMemberId, maxMemberId, replayPaths);
+
+            Map<RequestKind, OpenModelDriver.KindResult> results = new OpenModelDriver(baseUrl, mix, options).run();
+            new LoadTestReport(options, results).write();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * test.http 에는 꺼져 있는 기능(샤딩 등)의 요청도 있으므로 한 번 보내서 2xx 인 것만 replay 한다
+     */
+    private static List<String> reachable(String baseUrl, List<String> paths) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        List<String> reachable = new ArrayList<>();
+        for (String path : paths) {
+            try {
+                HttpResponse<Void> response = client.send(
+                        HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 300) {
+                    reachable.add(path);
+                    continue;
+                }
+                System.out.println("replay 제외 (" + response.statusCode() + "): " + path);
+            } catch (IOException e) {
+                System.out.println("replay 제외 (" + e.getMessage() + "): " + path);
+            }
+        }
+        return reachable;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.load;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정. {@code --rate=500 --duration=60} 처럼 넘기고, gradle 에서는 {@code -Pload.rate=500} 으로 넘긴다
+ */
+public class LoadTestOptions {
+
+    // 초당 요청 수. 응답 속도와 상관없이 이 간격으로 보낸다 (open model)
+    final int rate;
+    final int durationSeconds;
+    final int warmupSeconds;
+    // 비어 있으면 앱을 같은 JVM 에 띄우고 시드 데이터를 넣는다
+    final String target;
+    final int members;
+    final int teams;
+    final String mix;
+    final int maxPage;
+    final int pageSize;
+    final int idsPerLookup;
+    final int maxInFlight;
+    final long seed;
+    final Path httpFile;
+    final Path reportDir;
+
+    private LoadTestOptions(Map<String, String> values) {
+        rate = Integer.parseInt(values.getOrDefault("rate", "200"));
+        durationSeconds = Integer.parseInt(values.getOrDefault("duration", "30"));
+        warmupSeconds = Integer.parseInt(values.getOrDefault("warmup", "5"));
+        target = values.getOrDefault("target", "");
+        members = Integer.parseInt(values.getOrDefault("members", "100000"));
+        teams = Integer.parseInt(values.getOrDefault("teams", "20"));
+        mix = values.getOrDefault("mix", "search=40,slice=30,byIds=20,stats=5,replay=5");
+        maxPage = Integer.parseInt(values.getOrDefault("maxPage", "50"));
+        pageSize = Integer.parseInt(values.getOrDefault("pageSize", "20"));
+        idsPerLookup = Integer.parseInt(values.getOrDefault("idsPerLookup", "10"));
+        maxInFlight = Integer.parseInt(values.getOrDefault("maxInFlight", "2000"));
+        seed = Long.parseLong(values.getOrDefault("seed", "1"));
+        httpFile = Path.of(values.getOrDefault("httpFile", "test.http"));
+        reportDir = Path.of(values.getOrDefault("reportDir", "build/reports/load-test"));
+
+        if (rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("rate, duration 은 양수, warmup 은 0 이상이어야 합니다");
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("--key=value 형식이 아닙니다: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s duration=" + durationSeconds + "s warmup=" + warmupSeconds + "s"
+                + " target=" + (target.isEmpty() ? "(embedded, members=" + members + ", teams=" + teams + ")" : target)
+                + " mix=" + mix + " maxPage=" + maxPage + " pageSize=" + pageSize
+                + " idsPerLookup=" + idsPerLookup + " maxInFlight=" + maxInFlight + " seed=" + seed;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 요청 종류별 처리량과 지연 분포를 출력한다.
+ * report.txt 에 요약을, 종류별 .hgrm 에 HdrHistogram 백분위 분포(ms)를 남긴다. .hgrm 은 HdrHistogram plotter 로 겹쳐 볼 수 있다
+ */
+class LoadTestReport {
+
+    private final LoadTestOptions options;
+    private final Map<RequestKind, OpenModelDriver.KindResult> results;
+
+    LoadTestReport(LoadTestOptions options, Map<RequestKind, OpenModelDriver.KindResult> results) {
+        this.options = options;
+        this.results = results;
+    }
+
+    void write() throws IOException {
+        Files.createDirectories(options.reportDir);
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("# ").append(LocalDateTime.now()).append('\n');
+        summary.append("# ").append(options).append('\n');
+        summary.append(String.format("%-8s %8s %9s %9s %9s %9s %9s %9s %7s %7s %7s%n",
+                "kind", "ok", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9", "max(ms)", "errors", "fail", "drop"));
+
+        Histogram total = new Histogram(3);
+        long errors = 0, failures = 0, dropped = 0;
+        for (Map.Entry<RequestKind, OpenModelDriver.KindResult> entry : results.entrySet()) {
+            OpenModelDriver.KindResult result = entry.getValue();
+            summary.append(line(entry.getKey().key, result.histogram,
+                    result.errors.get(), result.failures.get(), result.dropped.get()));
+            total.add(result.histogram);
+            errors += result.errors.get();
+            failures += result.failures.get();
+            dropped += result.dropped.get();
+
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(options.reportDir.resolve(entry.getKey().key + ".hgrm")), true, StandardCharsets.UTF_8)) {
+                result.histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        summary.append(line("total", total, errors, failures, dropped));
+
+        Files.writeString(options.reportDir.resolve("report.txt"), summary, StandardCharsets.UTF_8);
+        System.out.print(summary);
+        System.out.println("report: " + options.reportDir.toAbsolutePath());
+    }
+
+    private String line(String name, Histogram histogram, long errors, long failures, long dropped) {
+        double throughput = (double) histogram.getTotalCount() / options.durationSeconds;
+        return String.format("%-8s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d %7d%n",
+                name, histogram.getTotalCount(), throughput,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0, errors, failures, dropped);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
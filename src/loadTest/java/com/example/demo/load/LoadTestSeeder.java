@@ -0,0 +1,71 @@
+package com.example.demo.load;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 같은 JVM 에 띄운 앱의 H2 에 teamN, memberN 데이터를 넣는다.
+ * 회원 i 는 team(i % teams) 에 속하고 나이는 i % 100 이다
+ */
+class LoadTestSeeder {
+
+    private static final int BATCH = 1000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    LoadTestSeeder(ConfigurableApplicationContext context) {
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+        this.entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    /**
+     * @return 넣은 회원 id 의 최솟값과 최댓값
+     */
+    long[] seed(int members, int teams) {
+        List<Team> savedTeams = transactionTemplate.execute(status -> {
+            EntityManager em = entityManager();
+            List<Team> created = new ArrayList<>(teams);
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                created.add(team);
+            }
+            return created;
+        });
+
+        for (int from = 0; from < members; from += BATCH) {
+            int start = from;
+            int end = Math.min(members, from + BATCH);
+            transactionTemplate.executeWithoutResult(status -> {
+                EntityManager em = entityManager();
+                for (int i = start; i < end; i++) {
+                    Team team = em.getReference(Team.class, savedTeams.get(i % teams).getId());
+                    em.persist(new Member("member" + i, i % 100, team));
+                }
+            });
+        }
+
+        return transactionTemplate.execute(status -> {
+            Object[] range = entityManager()
+                    .createQuery("select min(m.id), max(m.id) from Member m", Object[].class)
+                    .getSingleResult();
+            if (range[0] == null) {
+                return new long[]{0, 0};
+            }
+            return new long[]{(Long) range[0], (Long) range[1]};
+        });
+    }
+
+    private EntityManager entityManager() {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 고정 도착률(open model) 부하 발생기.
+ * i 번째 요청은 응답과 상관없이 시작 + i / rate 시점에 보내고, 지연은 그 예정 시점부터 잰다.
+ * 서버가 밀려서 보내는 쪽이 늦어져도 지연이 줄어 보이지 않는다 (coordinated omission 보정).
+ * <p>
+ * 응답을 기다리는 요청이 maxInFlight 개를 넘으면 보내지 않고 dropped 로 센다
+ */
+class OpenModelDriver {
+
+    // 1 us ~ 60 s, 유효숫자 3자리
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final TrafficMix mix;
+    private final LoadTestOptions options;
+
+    OpenModelDriver(String baseUrl, TrafficMix mix, LoadTestOptions options) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.options = options;
+    }
+
+    Map<RequestKind, KindResult> run() throws InterruptedException {
+        Map<RequestKind, KindResult> results = new EnumMap<>(RequestKind.class);
+        for (RequestKind kind : mix.kinds()) {
+            results.put(kind, new KindResult());
+        }
+
+        Random random = new Random(options.seed);
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            RequestKind kind = mix.nextKind(random);
+            String path = mix.nextPath(kind, random);
+            KindResult result = results.get(kind);
+            boolean measured = intended >= measureFrom;
+
+            if (inFlight.get() >= options.maxInFlight) {
+                if (measured) {
+                    result.dropped.incrementAndGet();
+                }
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        if (error != null) {
+                            result.failures.incrementAndGet();
+                        } else if (response.statusCode() >= 400) {
+                            result.errors.incrementAndGet();
+                        } else {
+                            result.histogram.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                        }
+                    });
+        }
+
+        // 남은 응답은 30 초까지 기다린다
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return results;
+    }
+
+    /**
+     * 요청 종류 하나의 결과. 성공한 요청만 histogram 에 들어간다
+     */
+    static class KindResult {
+
+        final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.load;
+
+/**
+ * 트래픽 믹스를 이루는 요청 종류. mix 설정의 키와 report 의 행 이름이 된다
+ */
+enum RequestKind {
+
+    // GET /v1/members : 조건 검색 (페이징 없음)
+    SEARCH("search"),
+    // GET /v2/members : Slice 페이징. page 는 0..maxPage 중에서 고른다
+    SLICE("slice"),
+    // GET /v1/members/by-ids : id 여러 개 조회 (캐시)
+    BY_IDS("byIds"),
+    // GET /v1/members/stats : 팀 x 나이 구간 집계
+    STATS("stats"),
+    // test.http 의 GET 요청을 그대로 보낸다
+    REPLAY("replay");
+
+    final String key;
+
+    RequestKind(String key) {
+        this.key = key;
+    }
+
+    static RequestKind of(String key) {
+        for (RequestKind kind : values()) {
+            if (kind.key.equals(key)) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 요청 종류: " + key);
+    }
+}
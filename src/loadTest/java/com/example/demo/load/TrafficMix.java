@@ -0,0 +1,141 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * 가중치대로 요청 종류를 고르고 그 종류의 요청 경로를 만든다.
+ * 검색 조건은 시드 데이터 모양(memberN, teamN, 나이 0..99)에 맞춰 고른다
+ */
+class TrafficMix {
+
+    private final RequestKind[] kinds;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private final int teams;
+    private final int maxPage;
+    private final int pageSize;
+    private final int idsPerLookup;
+    private final long minMemberId;
+    private final long maxMemberId;
+    private final List<String> replayPaths;
+
+    TrafficMix(LoadTestOptions options, long minMemberId, long maxMemberId, List<String> replayPaths) {
+        Map<RequestKind, Integer> weights = parseWeights(options.mix);
+        if (replayPaths.isEmpty()) {
+            weights.remove(RequestKind.REPLAY);
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix 에 보낼 요청이 없습니다: " + options.mix);
+        }
+
+        kinds = weights.keySet().toArray(new RequestKind[0]);
+        cumulativeWeights = new int[kinds.length];
+        int sum = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            sum += weights.get(kinds[i]);
+            cumulativeWeights[i] = sum;
+        }
+        totalWeight = sum;
+
+        this.teams = options.teams;
+        this.maxPage = options.maxPage;
+        this.pageSize = options.pageSize;
+        this.idsPerLookup = options.idsPerLookup;
+        this.minMemberId = minMemberId;
+        this.maxMemberId = maxMemberId;
+        this.replayPaths = replayPaths;
+    }
+
+    List<RequestKind> kinds() {
+        return List.of(kinds);
+    }
+
+    RequestKind nextKind(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < kinds.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return kinds[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    String nextPath(RequestKind kind, Random random) {
+        return switch (kind) {
+            case SEARCH -> "/v1/members?" + condition(random);
+            case SLICE -> "/v2/members?" + condition(random)
+                    + "&page=" + random.nextInt(maxPage + 1) + "&size=" + pageSize;
+            case BY_IDS -> "/v1/members/by-ids?ids=" + randomIds(random);
+            case STATS -> "/v1/members/stats?" + condition(random) + "&rollup=" + random.nextBoolean();
+            case REPLAY -> replayPaths.get(random.nextInt(replayPaths.size()));
+        };
+    }
+
+    /**
+     * 조건 하나하나를 독립적으로 켜고 끈다. 전체 조회는 응답이 시드 크기만큼 커지므로 팀 조건이라도 하나 넣는다
+     */
+    private String condition(Random random) {
+        List<String> params = new ArrayList<>();
+        if (random.nextInt(3) == 0) {
+            int ageGoe = random.nextInt(90);
+            params.add("ageGoe=" + ageGoe);
+            params.add("ageLoe=" + (ageGoe + 1 + random.nextInt(20)));
+        }
+        if (random.nextInt(5) == 0) {
+            params.add("username=member" + random.nextInt(100));
+            params.add("usernameMatch=PREFIX");
+        }
+        if (params.isEmpty() || random.nextBoolean()) {
+            params.add("teamName=team" + random.nextInt(teams));
+        }
+        return String.join("&", params);
+    }
+
+    private String randomIds(Random random) {
+        long span = Math.max(1, maxMemberId - minMemberId + 1);
+        List<String> ids = new ArrayList<>(idsPerLookup);
+        for (int i = 0; i < idsPerLookup; i++) {
+            ids.add(Long.toString(minMemberId + Math.floorMod(random.nextLong(), span)));
+        }
+        return String.join(",", ids);
+    }
+
+    private static Map<RequestKind, Integer> parseWeights(String mix) {
+        Map<RequestKind, Integer> weights = new EnumMap<>(RequestKind.class);
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("mix 는 key=weight 목록이어야 합니다: " + mix);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(RequestKind.of(keyAndWeight[0].trim()), weight);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * test.http 의 GET 줄에서 host 를 뗀 경로만 모은다
+     */
+    static List<String> readReplayPaths(Path httpFile) throws IOException {
+        if (!Files.exists(httpFile)) {
+            return List.of();
+        }
+        return Files.readAllLines(httpFile).stream()
+                .map(String::trim)
+                .filter(line -> line.startsWith("GET "))
+                .map(line -> line.substring(4).trim())
+                .map(url -> url.replaceFirst("^https?://[^/]+", ""))
+                .collect(Collectors.toList());
+    }
+}
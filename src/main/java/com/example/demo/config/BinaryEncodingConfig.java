@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.MemberTeamDtoSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Accept 헤더로 Smile / CBOR 응답을 고를 수 있게 한다. JSON 이 기본이다.
+ * 기본 converter 와 달리 반복되는 문자열 값(teamName 등)도 앞에 나온 것을 참조하게 해서
+ * 필드 이름과 팀 이름이 행마다 반복되는 목록 응답을 줄인다.
+ * 두 converter 에는 {@link MemberTeamDtoSerializer} 도 등록한다. JSON converter 는 건드리지 않는다
+ */
+@Configuration
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public BinaryEncodingConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    /**
+     * 이름은 기본으로 공유하고, 64바이트 이하 문자열 값도 공유한다
+     */
+    public static SmileFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    /**
+     * stringref 확장(tag 256). 읽는 쪽도 stringref 를 알아야 한다
+     */
+    public static CBORFactory cborFactory() {
+        return CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build();
+    }
+
+    /**
+     * Smile / CBOR mapper 에만 등록하는 serializer 들
+     */
+    public static SimpleModule binaryModule() {
+        return new SimpleModule("member-binary-encoding")
+                .addSerializer(MemberTeamDto.class, new MemberTeamDtoSerializer());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        ObjectMapper smile = objectMapperBuilder.getObject().factory(smileFactory()).build();
+        ObjectMapper cbor = objectMapperBuilder.getObject().factory(cborFactory()).build();
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smile.registerModule(binaryModule())));
+        converters.add(new MappingJackson2CborHttpMessageConverter(cbor.registerModule(binaryModule())));
+    }
+}
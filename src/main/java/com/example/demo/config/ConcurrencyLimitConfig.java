@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.limit.GradientConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 회원 검색 엔드포인트 앞의 동시 처리 한도. 한도를 넘는 요청은 {@code ConcurrencyLimitFilter} 가 503 으로 돌려보낸다
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    GradientConcurrencyLimiter memberSearchLimiter(
+            @Value("${member.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${member.concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${member.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${member.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${member.concurrency-limit.smoothing:0.2}") double smoothing,
+            @Value("${member.concurrency-limit.long-window:600}") int longWindow) {
+        return new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, smoothing, longWindow);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.deadline.DeadlineCallableInterceptor;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 비동기 요청에도 요청 마감을 잇는다. 연결이 끊기거나 비동기 타임아웃이 나면 실행 중인 쿼리를 취소한다
+ */
+@Configuration
+public class QueryDeadlineConfig implements WebMvcConfigurer {
+
+    private final QueryDeadlines queryDeadlines;
+
+    public QueryDeadlineConfig(QueryDeadlines queryDeadlines) {
+        this.queryDeadlines = queryDeadlines;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new DeadlineCallableInterceptor(queryDeadlines));
+    }
+}
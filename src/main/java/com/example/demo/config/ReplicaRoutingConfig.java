@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.replica.ReplicaRoutingDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * spring.datasource 를 primary, member.replica.url 을 replica 로 두고 트랜잭션의 readOnly 여부로 나눈다
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                      @Value("${member.replica.url}") String replicaUrl,
+                                                      @Value("${member.replica.max-lag-ms:1000}") long maxLagMillis) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+        DataSource replica = DataSourceBuilder.create()
+                .url(replicaUrl)
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build();
+        return new ReplicaRoutingDataSource(primary, replica, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        // 트랜잭션 시작 시점이 아니라 첫 쿼리 시점에 커넥션을 가져와야 readOnly 여부로 라우팅할 수 있다
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * 기본값(DELAYED_ACQUISITION_AND_HOLD)은 open-in-view 세션이 요청 내내 첫 커넥션을 들고 있어서
+     * 같은 요청의 다음 트랜잭션이 다른 쪽으로 라우팅되지 않는다. 트랜잭션마다 커넥션을 반납하게 한다.
+     */
+    @Bean
+    HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.changefeed.ChangeFeedStats;
+import com.example.demo.repository.changefeed.MemberChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final MemberChangeFeed memberChangeFeed;
+
+    @GetMapping("/v1/change-feed/stats")
+    public ChangeFeedStats stats(){
+        return memberChangeFeed.stats();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.limit.ConcurrencyLimitStats;
+import com.example.demo.repository.limit.GradientConcurrencyLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitController {
+
+    private final GradientConcurrencyLimiter memberSearchLimiter;
+
+    @GetMapping("/v1/members/concurrency-limit/stats")
+    public ConcurrencyLimitStats stats(){
+        return memberSearchLimiter.stats();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.deadline.RunningStatements;
+import com.example.demo.repository.limit.GradientConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 회원 검색(member.concurrency-limit.paths 와 그 하위 경로, excluded-paths 는 빼고)에 동시 처리 한도를 건다.
+ * <p>
+ * limiter 의 RTT 샘플은 요청이 자리를 잡은 시간 전체가 아니라 그 동안 DB 에 쓴 시간(커넥션 대기 + JDBC execute)이다.
+ * 직렬화나 느린 클라이언트 때문에 한도가 줄지 않고, DB 를 쓰지 않은 요청(304, 캐시 적중)은 샘플로 쓰지 않는다.
+ * 커넥션 풀이 꽉 차서 기다린 시간도 샘플에 들어가므로 풀이 포화되면 한도가 줄어든다.
+ * <p>
+ * {@link RequestDeadlineFilter} 보다 바깥에서 돈다. 한도를 넘어 거절되는 요청에는 마감을 걸지 않고,
+ * 마감 때문에 504 로 끝난 요청도 여기서 자리를 반납한다
+ */
+@Component
+@Order(ConcurrencyLimitFilter.ORDER)
+@ConditionalOnProperty(name = "member.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private final GradientConcurrencyLimiter memberSearchLimiter;
+    private final List<String> paths;
+    private final List<String> excludedPaths;
+
+    public ConcurrencyLimitFilter(GradientConcurrencyLimiter memberSearchLimiter,
+                                  @Value("${member.concurrency-limit.paths:/v1/members,/v2/members}") List<String> paths,
+                                  @Value("${member.concurrency-limit.excluded-paths:/v1/members/concurrency-limit,/v1/members/export}") List<String> excludedPaths) {
+        this.memberSearchLimiter = memberSearchLimiter;
+        this.paths = paths;
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !matches(paths, path) || matches(excludedPaths, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!memberSearchLimiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "concurrency limit exceeded");
+            return;
+        }
+
+        long databaseBefore = databaseNanos();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            memberSearchLimiter.release(databaseNanos() - databaseBefore);
+        }
+    }
+
+    private static long databaseNanos() {
+        return RunningStatements.acquireNanos() + RunningStatements.executedNanos();
+    }
+
+    /**
+     * prefix 와 같거나 prefix + "/" 로 시작하면 맞는다. /v1/members 는 /v1/members/ 와 /v1/members/stats 에 맞고 /v1/membersX 에는 맞지 않는다
+     */
+    static boolean matches(List<String> prefixes, String path) {
+        for (String prefix : prefixes) {
+            String trimmed = prefix.trim();
+            if (path.equals(trimmed) || path.startsWith(trimmed.endsWith("/") ? trimmed : trimmed + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
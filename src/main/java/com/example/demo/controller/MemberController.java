@@ -1,22 +1,105 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.MemberAgeStats;
 import com.example.demo.dto.MemberSearchCondition;
 import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.MemberTeamField;
+import com.example.demo.dto.MemberTeamRows;
 import com.example.demo.repository.MemberJpaRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.demo.repository.MemberRepository;
+import com.example.demo.repository.MemberRepositoryCustom;
+import com.example.demo.repository.MemberStatsRepository;
+import com.example.demo.repository.cache.MemberTeamDtoCache;
+import com.example.demo.repository.cache.MemberTeamDtoCacheStats;
+import com.example.demo.repository.changefeed.MemberSearchETags;
+import com.example.demo.repository.replica.ReplicaRoutingDataSource;
+import com.example.demo.repository.sql.MemberSqlRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
-@RequiredArgsConstructor
 public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepositoryCustom memberRepository;
+    private final MemberStatsRepository memberStatsRepository;
+    private final MemberTeamDtoCache memberTeamDtoCache;
+    private final MemberSearchETags memberSearchETags;
 
+    /**
+     * MemberRepositoryCustom 타입 빈은 스프링 데이터 리포지토리와 그 구현 조각, sql 프로파일의 MemberSqlRepository 까지 여러 개라
+     * 타입으로 받지 않고 구현을 직접 고른다. sql 프로파일이면 MemberSqlRepository, 아니면 MemberRepository
+     */
+    public MemberController(MemberJpaRepository memberJpaRepository,
+                            MemberRepository memberRepository,
+                            ObjectProvider<MemberSqlRepository> memberSqlRepository,
+                            MemberStatsRepository memberStatsRepository,
+                            MemberTeamDtoCache memberTeamDtoCache,
+                            MemberSearchETags memberSearchETags) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.memberRepository = memberSqlRepository.getIfAvailable(() -> memberRepository);
+        this.memberStatsRepository = memberStatsRepository;
+        this.memberTeamDtoCache = memberTeamDtoCache;
+        this.memberSearchETags = memberSearchETags;
+    }
+
+    /**
+     * If-None-Match 가 지금 데이터 버전과 조건의 ETag 와 같으면 쿼리 없이 304 로 답한다.
+     * ETag 의 버전은 primary 기준이므로 본문도 primary 에서 읽는다. replica 에서 읽으면 지연된 본문이 새 ETag 로 캐시된다
+     */
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
-        return memberJpaRepository.search(condition);
+    public MemberTeamRows searchMemberV1(MemberSearchCondition condition,
+                                         @RequestParam(required = false) List<String> fields,
+                                         WebRequest request){
+        Set<MemberTeamField> selected;
+        try {
+            selected = MemberTeamField.of(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        String etag = memberSearchETags.etag(condition, selected, request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ReplicaRoutingDataSource.readFromPrimary(request);
+        return memberJpaRepository.searchRows(condition, selected);
+    }
+
+    @GetMapping("/v2/members")
+    public Slice<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable){
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    @GetMapping("/v1/members/stats")
+    public MemberAgeStats memberStats(MemberSearchCondition condition,
+                                      @RequestParam(required = false) List<Integer> buckets,
+                                      @RequestParam(defaultValue = "false") boolean rollup){
+        List<Integer> bucketBounds = buckets == null || buckets.isEmpty() ? MemberStatsRepository.DEFAULT_BUCKET_BOUNDS : buckets;
+        try {
+            return memberStatsRepository.teamAgeStats(condition, bucketBounds, rollup);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/v1/members/by-ids")
+    public List<MemberTeamDto> findByIds(@RequestParam List<Long> ids){
+        return memberTeamDtoCache.findMemberTeamDtosByIds(ids);
+    }
+
+    @GetMapping("/v1/members/cache/stats")
+    public MemberTeamDtoCacheStats cacheStats(){
+        return memberTeamDtoCache.stats();
     }
 }
@@ -0,0 +1,63 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.repository.export.ExternalSortStats;
+import com.example.demo.repository.export.MemberExportStats;
+import com.example.demo.repository.export.MemberExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@ConditionalOnProperty(name = "member.export.enabled", havingValue = "true")
+public class MemberExportController {
+
+    private final MemberExporter memberExporter;
+    private final long timeoutMillis;
+
+    public MemberExportController(MemberExporter memberExporter,
+                                  @Value("${member.export.timeout-ms:600000}") long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeout-ms must be positive: " + timeoutMillis);
+        }
+        this.memberExporter = memberExporter;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 나이 내림차순, 이름 오름차순으로 정렬한 검색 결과 전체를 한 줄에 한 명씩 내려준다.
+     * 끝까지 내려보냈으면 마지막 줄에 {"complete":true,"rows":N} 을 붙인다. 이 줄이 없으면 중간에 끊긴 응답이다.
+     * <p>
+     * 이 요청에만 timeout-ms 한도를 건다. 넘으면 응답이 끝나고 쓰던 스레드는 인터럽트된다.
+     * 자리는 작업이 실행될 때 잡는다. 여기서 잡으면 실행되지 않고 끝난 요청(타임아웃, 연결 끊김)이 자리를 반납하지 못한다.
+     * 자리가 없으면 아직 아무것도 쓰지 않았으므로 503 으로 응답된다
+     */
+    @GetMapping("/v1/members/export")
+    public WebAsyncTask<Void> export(MemberSearchCondition condition, HttpServletResponse response){
+        return new WebAsyncTask<>(timeoutMillis, () -> {
+            if (!memberExporter.tryAcquire()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many concurrent exports");
+            }
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            ExternalSortStats stats = memberExporter.export(condition, out);
+            out.write(("{\"complete\":true,\"rows\":" + stats.getRows() + "}\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return null;
+        });
+    }
+
+    @GetMapping("/v1/members/export/stats")
+    public MemberExportStats stats(){
+        return memberExporter.stats();
+    }
+}
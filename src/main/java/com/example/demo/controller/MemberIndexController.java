@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.index.MemberSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.search-index.enabled", havingValue = "true")
+public class MemberIndexController {
+
+    private final MemberSearchIndex memberSearchIndex;
+    private final MemberJpaRepository memberJpaRepository;
+
+    /**
+     * 색인을 처음 적재하는 동안이나 커밋된 변경을 아직 반영하지 못했을 때는 DB 로 조회한다
+     */
+    @GetMapping("/v1/index/members")
+    public List<MemberTeamDto> searchMember(MemberSearchCondition condition){
+        if (!memberSearchIndex.isReady() || !memberSearchIndex.isCaughtUp()) {
+            return memberJpaRepository.search(condition);
+        }
+        return memberSearchIndex.search(condition);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.repository.snapshot.MemberSnapshotService;
+import com.example.demo.repository.snapshot.MemberSnapshotStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.snapshot.enabled", havingValue = "true")
+public class MemberSnapshotController {
+
+    private final MemberSnapshotService memberSnapshotService;
+
+    @GetMapping("/v1/snapshot/members/{id}")
+    public ResponseEntity<MemberTeamDto> findById(@PathVariable Long id){
+        return ResponseEntity.of(memberSnapshotService.findById(id));
+    }
+
+    @GetMapping("/v1/snapshot/members")
+    public List<MemberTeamDto> findByUsername(@RequestParam String username){
+        return memberSnapshotService.findByUsername(username);
+    }
+
+    @GetMapping("/v1/snapshot/stats")
+    public MemberSnapshotStats stats(){
+        return memberSnapshotService.stats();
+    }
+}
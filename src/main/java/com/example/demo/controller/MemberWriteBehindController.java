@@ -0,0 +1,21 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.writebehind.MemberWriteBehindBuffer;
+import com.example.demo.repository.writebehind.WriteBehindStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.write-behind.enabled", havingValue = "true")
+public class MemberWriteBehindController {
+
+    private final MemberWriteBehindBuffer memberWriteBehindBuffer;
+
+    @GetMapping("/v1/write-behind/stats")
+    public WriteBehindStats stats(){
+        return memberWriteBehindBuffer.stats();
+    }
+}
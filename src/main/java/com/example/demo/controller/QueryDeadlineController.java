@@ -0,0 +1,19 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.deadline.QueryDeadlineStats;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class QueryDeadlineController {
+
+    private final QueryDeadlines queryDeadlines;
+
+    @GetMapping("/v1/deadline/stats")
+    public QueryDeadlineStats stats(){
+        return queryDeadlines.stats();
+    }
+}
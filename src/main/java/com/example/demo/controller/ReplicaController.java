@@ -0,0 +1,21 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.replica.ReplicaRoutingDataSource;
+import com.example.demo.repository.replica.ReplicaRoutingStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.replica.enabled", havingValue = "true")
+public class ReplicaController {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @GetMapping("/v1/replica/stats")
+    public ReplicaRoutingStats stats(){
+        return replicaRoutingDataSource.stats();
+    }
+}
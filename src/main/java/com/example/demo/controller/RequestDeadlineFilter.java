@@ -0,0 +1,79 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.deadline.DeadlineCallableInterceptor;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.deadline.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 요청마다 마감을 건다. 클라이언트가 기다릴 수 있는 시간(ms)을 X-Request-Timeout-Ms 헤더로 보내면 그 값을,
+ * 없으면 member.deadline.default-timeout-ms 를 쓴다.
+ * <p>
+ * 서블릿 스레드가 JDBC 에서 막혀 있는 동안에는 연결이 끊긴 것을 알 수 없으므로,
+ * 동기 요청은 클라이언트가 포기하는 시점인 이 마감을 취소 신호로 쓴다.
+ * 비동기 요청은 마감을 요청 속성으로 넘기고, {@link DeadlineCallableInterceptor} 가
+ * 작업 스레드에 걸어 연결 끊김(onError)과 비동기 타임아웃(onTimeout)에 바로 취소한다.
+ * 마감 때문에 실패하면 504 로 응답한다. {@link ConcurrencyLimitFilter} 안쪽에서 돈다
+ */
+@Component
+@Order(ConcurrencyLimitFilter.ORDER + 1)
+@RequiredArgsConstructor
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final QueryDeadlines queryDeadlines;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestDeadline deadline;
+        try {
+            deadline = queryDeadlines.begin(timeoutMillis(request));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+
+        request.setAttribute(DeadlineCallableInterceptor.ATTRIBUTE, deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            if (!QueryDeadlines.isTimeout(e)) {
+                throw e;
+            }
+            queryDeadlines.recordTimeout();
+            if (!response.isCommitted()) {
+                response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "request deadline exceeded");
+            }
+        } finally {
+            if (request.isAsyncStarted()) {
+                queryDeadlines.detach(deadline);
+            } else {
+                queryDeadlines.end(deadline);
+            }
+        }
+    }
+
+    private static Long timeoutMillis(HttpServletRequest request) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(TIMEOUT_HEADER + " must be a number of milliseconds: " + header);
+        }
+    }
+}
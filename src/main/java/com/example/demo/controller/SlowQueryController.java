@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.slowquery.SlowQuery;
+import com.example.demo.repository.slowquery.SlowQueryLog;
+import com.example.demo.repository.slowquery.SlowQueryLogStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.slow-query.enabled", havingValue = "true")
+public class SlowQueryController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @GetMapping("/v1/slow-queries")
+    public List<SlowQuery> entries(){
+        return slowQueryLog.entries();
+    }
+
+    @GetMapping("/v1/slow-queries/stats")
+    public SlowQueryLogStats stats(){
+        return slowQueryLog.stats();
+    }
+
+    @DeleteMapping("/v1/slow-queries")
+    public void clear(){
+        slowQueryLog.clear();
+    }
+}
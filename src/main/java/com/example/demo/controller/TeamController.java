@@ -0,0 +1,22 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.TeamRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    @GetMapping("/v1/teams/member-counts")
+    public Map<Long, Long> memberCounts(@RequestParam List<Long> teamIds){
+        return teamRepository.countMembersByTeamIds(teamIds);
+    }
+}
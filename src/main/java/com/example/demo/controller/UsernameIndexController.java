@@ -0,0 +1,21 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.ngram.UsernameTrigramIndex;
+import com.example.demo.repository.ngram.UsernameTrigramIndexStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member.username-index.enabled", havingValue = "true")
+public class UsernameIndexController {
+
+    private final UsernameTrigramIndex usernameTrigramIndex;
+
+    @GetMapping("/v1/members/username-index/stats")
+    public UsernameTrigramIndexStats stats(){
+        return usernameTrigramIndex.stats();
+    }
+}
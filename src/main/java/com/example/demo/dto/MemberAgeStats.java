@@ -0,0 +1,53 @@
+package com.example.demo.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 팀 x 나이 구간별 통계를 행 대신 열 단위 배열로 담는다. i 번째 행은 각 배열의 i 번째 값이다.
+ * <p>
+ * grouping 은 SQL 의 GROUPING_ID(team, ageBucket) 와 같다.
+ * 0 은 팀/구간별 행, 1 은 팀 소계(ageBucket 이 null), 3 은 전체 합계(teamId, ageBucket 이 null).
+ * 팀이 없는 회원은 grouping 0 이면서 teamId 가 null 이다.
+ */
+@Getter
+public class MemberAgeStats {
+
+    public static final int DETAIL = 0;
+    public static final int TEAM_SUBTOTAL = 1;
+    public static final int GRAND_TOTAL = 3;
+
+    private final List<Integer> bucketBounds;
+    private final List<Integer> grouping = new ArrayList<>();
+    private final List<Long> teamId = new ArrayList<>();
+    private final List<String> teamName = new ArrayList<>();
+    private final List<Integer> ageBucket = new ArrayList<>();
+    private final List<Long> count = new ArrayList<>();
+    private final List<Long> sumAge = new ArrayList<>();
+    private final List<Double> avgAge = new ArrayList<>();
+    private final List<Integer> minAge = new ArrayList<>();
+    private final List<Integer> maxAge = new ArrayList<>();
+
+    public MemberAgeStats(List<Integer> bucketBounds) {
+        this.bucketBounds = List.copyOf(bucketBounds);
+    }
+
+    public void addRow(int grouping, Long teamId, String teamName, Integer ageBucket,
+                       long count, long sumAge, int minAge, int maxAge) {
+        this.grouping.add(grouping);
+        this.teamId.add(teamId);
+        this.teamName.add(teamName);
+        this.ageBucket.add(ageBucket);
+        this.count.add(count);
+        this.sumAge.add(sumAge);
+        this.avgAge.add(count == 0 ? null : (double) sumAge / count);
+        this.minAge.add(count == 0 ? null : minAge);
+        this.maxAge.add(count == 0 ? null : maxAge);
+    }
+
+    public int getRows() {
+        return grouping.size();
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 public class MemberSearchCondition {
 
     private String username;
+    private UsernameMatch usernameMatch = UsernameMatch.EXACT;
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * {@link MemberTeamDto} 를 getter 탐색이나 리플렉션 없이 쓴다. 필드 이름과 순서는 Jackson 기본 직렬화와 같다.
+ * Smile, CBOR converter 에만 등록한다({@link com.example.demo.config.BinaryEncodingConfig}). JSON 은 기본 직렬화 그대로다
+ */
+public class MemberTeamDtoSerializer extends StdSerializer<MemberTeamDto> {
+
+    public MemberTeamDtoSerializer() {
+        super(MemberTeamDto.class);
+    }
+
+    @Override
+    public void serialize(MemberTeamDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto, 5);
+        writeNullableNumber(gen, "memberId", dto.getMemberId());
+        gen.writeStringField("username", dto.getUsername());
+        gen.writeNumberField("age", dto.getAge());
+        writeNullableNumber(gen, "teamId", dto.getTeamId());
+        gen.writeStringField("teamName", dto.getTeamName());
+        gen.writeEndObject();
+    }
+
+    private static void writeNullableNumber(JsonGenerator gen, String fieldName, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(fieldName);
+        } else {
+            gen.writeNumberField(fieldName, value);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.dto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * /v1/members 의 fields 파라미터로 고를 수 있는 {@link MemberTeamDto} 필드
+ */
+public enum MemberTeamField {
+
+    MEMBER_ID("memberId"),
+    USERNAME("username"),
+    AGE("age"),
+    TEAM_ID("teamId"),
+    TEAM_NAME("teamName");
+
+    private final String fieldName;
+
+    MemberTeamField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * 필드 이름 목록을 변환한다. 비어 있으면 전체 필드
+     *
+     * @throws IllegalArgumentException 모르는 필드 이름이 있을 때
+     */
+    public static Set<MemberTeamField> of(Collection<String> fieldNames) {
+        if (fieldNames == null || fieldNames.isEmpty()) {
+            return EnumSet.allOf(MemberTeamField.class);
+        }
+        Set<MemberTeamField> fields = EnumSet.noneOf(MemberTeamField.class);
+        for (String fieldName : fieldNames) {
+            fields.add(fromFieldName(fieldName.trim()));
+        }
+        return fields;
+    }
+
+    public static MemberTeamField fromFieldName(String fieldName) {
+        for (MemberTeamField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("unknown field: " + fieldName);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 검색 결과를 필드별 배열로 들고 있다가 {@link #get(int)} 할 때만 {@link MemberTeamDto} 를 만드는 목록.
+ * 선택한 필드의 배열만 만들고, JSON 으로 내보낼 때는 DTO 를 만들지 않고 배열에서 바로 쓴다.
+ */
+@JsonSerialize(using = MemberTeamRowsSerializer.class)
+public class MemberTeamRows extends AbstractList<MemberTeamDto> implements RandomAccess {
+
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final Set<MemberTeamField> fields;
+    private int size;
+    private int capacity;
+
+    private long[] memberIds;
+    private String[] usernames;
+    private int[] ages;
+    private long[] teamIds;
+    private String[] teamNames;
+
+    public MemberTeamRows(Set<MemberTeamField> fields, int initialCapacity) {
+        this.fields = fields.isEmpty() ? EnumSet.noneOf(MemberTeamField.class) : EnumSet.copyOf(fields);
+        capacity = Math.max(initialCapacity, 8);
+        memberIds = has(MemberTeamField.MEMBER_ID) ? new long[capacity] : null;
+        usernames = has(MemberTeamField.USERNAME) ? new String[capacity] : null;
+        ages = has(MemberTeamField.AGE) ? new int[capacity] : null;
+        teamIds = has(MemberTeamField.TEAM_ID) ? new long[capacity] : null;
+        teamNames = has(MemberTeamField.TEAM_NAME) ? new String[capacity] : null;
+    }
+
+    /**
+     * 선택하지 않은 필드 값은 무시된다
+     */
+    public void addRow(Long memberId, String username, Integer age, Long teamId, String teamName) {
+        ensureCapacity(size + 1);
+        if (memberIds != null) {
+            memberIds[size] = memberId == null ? NULL_ID : memberId;
+        }
+        if (usernames != null) {
+            usernames[size] = username;
+        }
+        if (ages != null) {
+            ages[size] = age == null ? 0 : age;
+        }
+        if (teamIds != null) {
+            teamIds[size] = teamId == null ? NULL_ID : teamId;
+        }
+        if (teamNames != null) {
+            teamNames[size] = teamName;
+        }
+        size++;
+    }
+
+    public boolean has(MemberTeamField field) {
+        return fields.contains(field);
+    }
+
+    public Set<MemberTeamField> getFields() {
+        return fields;
+    }
+
+    public Long getMemberId(int index) {
+        return memberIds == null || memberIds[checkIndex(index)] == NULL_ID ? null : memberIds[index];
+    }
+
+    public String getUsername(int index) {
+        return usernames == null ? null : usernames[checkIndex(index)];
+    }
+
+    public int getAge(int index) {
+        return ages == null ? 0 : ages[checkIndex(index)];
+    }
+
+    public Long getTeamId(int index) {
+        return teamIds == null || teamIds[checkIndex(index)] == NULL_ID ? null : teamIds[index];
+    }
+
+    public String getTeamName(int index) {
+        return teamNames == null ? null : teamNames[checkIndex(index)];
+    }
+
+    @Override
+    public MemberTeamDto get(int index) {
+        checkIndex(index);
+        return new MemberTeamDto(getMemberId(index), getUsername(index), getAge(index), getTeamId(index), getTeamName(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= capacity) {
+            return;
+        }
+        capacity = Math.max(required, capacity * 2);
+        if (memberIds != null) {
+            memberIds = Arrays.copyOf(memberIds, capacity);
+        }
+        if (usernames != null) {
+            usernames = Arrays.copyOf(usernames, capacity);
+        }
+        if (ages != null) {
+            ages = Arrays.copyOf(ages, capacity);
+        }
+        if (teamIds != null) {
+            teamIds = Arrays.copyOf(teamIds, capacity);
+        }
+        if (teamNames != null) {
+            teamNames = Arrays.copyOf(teamNames, capacity);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * {@link MemberTeamRows} 를 DTO 생성이나 리플렉션 없이 선택된 필드만 바로 쓴다.
+ * 전체 필드일 때의 출력은 {@link MemberTeamDto} 를 Jackson 기본 방식으로 직렬화한 결과와 같다.
+ */
+public class MemberTeamRowsSerializer extends StdSerializer<MemberTeamRows> {
+
+    public MemberTeamRowsSerializer() {
+        super(MemberTeamRows.class);
+    }
+
+    @Override
+    public void serialize(MemberTeamRows rows, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        boolean memberId = rows.has(MemberTeamField.MEMBER_ID);
+        boolean username = rows.has(MemberTeamField.USERNAME);
+        boolean age = rows.has(MemberTeamField.AGE);
+        boolean teamId = rows.has(MemberTeamField.TEAM_ID);
+        boolean teamName = rows.has(MemberTeamField.TEAM_NAME);
+
+        int size = rows.size();
+        gen.writeStartArray(rows, size);
+        for (int i = 0; i < size; i++) {
+            gen.writeStartObject();
+            if (memberId) {
+                writeNullableNumber(gen, "memberId", rows.getMemberId(i));
+            }
+            if (username) {
+                gen.writeStringField("username", rows.getUsername(i));
+            }
+            if (age) {
+                gen.writeNumberField("age", rows.getAge(i));
+            }
+            if (teamId) {
+                writeNullableNumber(gen, "teamId", rows.getTeamId(i));
+            }
+            if (teamName) {
+                gen.writeStringField("teamName", rows.getTeamName(i));
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeNullableNumber(JsonGenerator gen, String fieldName, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(fieldName);
+        } else {
+            gen.writeNumberField(fieldName, value);
+        }
+    }
+}
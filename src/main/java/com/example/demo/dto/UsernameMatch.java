@@ -0,0 +1,61 @@
+package com.example.demo.dto;
+
+import java.util.Locale;
+
+/**
+ * {@link MemberSearchCondition#getUsername()} 을 비교하는 방식.
+ * 대소문자를 무시하는 비교는 lower(username) 을 저장해 둔 username_lower 컬럼 인덱스를 탄다.
+ * CONTAINS 는 B-tree 인덱스를 탈 수 없어서, 트라이그램 인덱스가 켜져 있으면 후보 id 를 먼저 좁힌다.
+ */
+public enum UsernameMatch {
+
+    EXACT(false, false, false),
+    PREFIX(true, false, false),
+    CONTAINS(false, true, false),
+    IGNORE_CASE(false, false, true),
+    PREFIX_IGNORE_CASE(true, false, true),
+    CONTAINS_IGNORE_CASE(false, true, true);
+
+    private final boolean prefix;
+    private final boolean contains;
+    private final boolean ignoreCase;
+
+    UsernameMatch(boolean prefix, boolean contains, boolean ignoreCase) {
+        this.prefix = prefix;
+        this.contains = contains;
+        this.ignoreCase = ignoreCase;
+    }
+
+    public boolean isPrefix() {
+        return prefix;
+    }
+
+    public boolean isContains() {
+        return contains;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * DB 쪽 username_lower 와 같은 규칙으로 정규화한다
+     */
+    public static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    public boolean matches(String candidate, String username) {
+        if (candidate == null) {
+            return false;
+        }
+        if (ignoreCase) {
+            candidate = normalize(candidate);
+            username = normalize(username);
+        }
+        if (prefix) {
+            return candidate.startsWith(username);
+        }
+        return contains ? candidate.contains(username) : candidate.equals(username);
+    }
+}
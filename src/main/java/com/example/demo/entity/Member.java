@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_username_lower", columnList = "username_lower")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
@@ -13,6 +17,16 @@ public class Member {
     @Column(name ="member_id")
     private Long id;
     private String username;
+
+    /**
+     * lower(username). DB 가 계산하는 컬럼이라 벌크 update 나 SQL 로 username 을 바꿔도 같이 바뀐다.
+     * 엔티티에서는 쓰지 않고 조회할 때만 채워진다
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "username_lower", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(username))")
+    private String usernameLower;
+
     private int age;
 
     @ManyToOne(fetch = FetchType.LAZY)
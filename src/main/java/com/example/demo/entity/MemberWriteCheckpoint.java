@@ -0,0 +1,34 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * write-behind 저널 하나에서 DB 에 반영된 마지막 sequence. 저널 경로가 키다.
+ * 쓰기와 같은 트랜잭션에서 올리므로 재시작 시 이 값까지는 다시 반영하지 않는다
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberWriteCheckpoint {
+
+    @Id
+    @Column(length = 1000)
+    private String journal;
+    private long appliedSequence;
+
+    public MemberWriteCheckpoint(String journal, long appliedSequence) {
+        this.journal = journal;
+        this.appliedSequence = appliedSequence;
+    }
+
+    public void advance(long sequence) {
+        this.appliedSequence = Math.max(appliedSequence, sequence);
+    }
+}
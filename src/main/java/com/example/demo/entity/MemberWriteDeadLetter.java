@@ -0,0 +1,45 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * write-behind 에서 한 건씩 다시 시도해도 반영하지 못한 쓰기. 버리지 않고 남겨서 원인을 고친 뒤 다시 넣을 수 있게 한다
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "sequence", "type", "error"})
+public class MemberWriteDeadLetter {
+
+    @Id @GeneratedValue
+    private Long id;
+    private long sequence;
+    private String type;
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    @Column(length = 1000)
+    private String error;
+    private LocalDateTime failedAt;
+
+    public MemberWriteDeadLetter(long sequence, String type, Long memberId, String username, int age, Long teamId, String error) {
+        this.sequence = sequence;
+        this.type = type;
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.error = error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+        this.failedAt = LocalDateTime.now();
+    }
+}
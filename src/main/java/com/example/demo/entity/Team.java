@@ -19,6 +19,7 @@ public class Team {
     private Long id;
     private String name;
 
+    // 크기나 소속 여부만 필요하면 TeamRepository.countMembers / containsMember 를 쓴다. size() 는 회원을 전부 로딩한다
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
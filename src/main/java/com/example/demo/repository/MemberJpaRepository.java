@@ -2,55 +2,89 @@ package com.example.demo.repository;
 
 import com.example.demo.dto.MemberSearchCondition;
 import com.example.demo.dto.MemberTeamDto;
-import com.example.demo.dto.QMemberTeamDto;
+import com.example.demo.dto.MemberTeamField;
+import com.example.demo.dto.MemberTeamRows;
 import com.example.demo.entity.Member;
+import com.example.demo.repository.changefeed.ChangeType;
+import com.example.demo.repository.changefeed.MemberChangeCapture;
+import com.example.demo.repository.changefeed.MemberChanged;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.ngram.UsernameTrigramIndex;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import static com.example.demo.entity.QMember.*;
 import static com.example.demo.entity.QTeam.team;
+import static com.example.demo.repository.MemberSearchExpressions.*;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
+    // IN 절 하나에 넣는 id 수. Oracle 등의 IN 목록 최대 개수에 맞춘다
+    public static final int IN_CHUNK_SIZE = 1000;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberChangeCapture changeCapture;
+    private final ObjectProvider<UsernameTrigramIndex> usernameTrigramIndex;
+    private final QueryDeadlines queryDeadlines;
 
+    @Transactional
     public void save(Member member){
         em.persist(member);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Member> findById(Long id){
         return Optional.ofNullable(em.find(Member.class, id));
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll(){
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAllV2(){
         return queryFactory
                 .selectFrom(member)
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsername(String username){
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsernameV2(String username){
         return queryFactory
                 .selectFrom(member)
@@ -58,6 +92,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition){
         BooleanBuilder builder = new BooleanBuilder();
         if(StringUtils.hasText(condition.getUsername())){
@@ -77,53 +112,185 @@ public class MemberJpaRepository {
         }
 
         return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(builder)
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition){
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
+        return queryDeadlines.apply(queryFactory
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameCandidates(condition),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeLoe()),
+                        ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
+                ))
                 .fetch();
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    /**
+     * id 목록으로 한 번에 조회한다. id 가 많으면 IN_CHUNK_SIZE 개씩 나눠서 조회하고, 없는 id 는 결과에서 빠진다
+     */
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> findMemberTeamDtosByIds(Collection<Long> ids){
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<MemberTeamDto> results = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(distinctIds.size(), from + IN_CHUNK_SIZE));
+            results.addAll(queryDeadlines.apply(queryFactory
+                    .select(MEMBER_TEAM_DTO)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(member.id.in(chunk)))
+                    .fetch());
+        }
+        return results;
+    }
+
+    /**
+     * search 와 같은 조건이지만 요청한 필드만 select 하고, team 필드나 teamName 조건이 없으면 team 조인도 하지 않는다.
+     * 결과는 DTO 를 만들지 않고 필드별 배열에 담는다
+     */
+    @Transactional(readOnly = true)
+    public MemberTeamRows searchRows(MemberSearchCondition condition, Set<MemberTeamField> fields){
+        List<Expression<?>> select = new ArrayList<>();
+        if(fields.contains(MemberTeamField.MEMBER_ID)){
+            select.add(member.id);
+        }
+        if(fields.contains(MemberTeamField.USERNAME)){
+            select.add(member.username);
+        }
+        if(fields.contains(MemberTeamField.AGE)){
+            select.add(member.age);
+        }
+        if(fields.contains(MemberTeamField.TEAM_ID)){
+            select.add(team.id);
+        }
+        if(fields.contains(MemberTeamField.TEAM_NAME)){
+            select.add(team.name);
+        }
+        if(select.isEmpty()){
+            // 필드를 하나도 고르지 않아도 행 수는 맞아야 한다
+            select.add(member.id);
+        }
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(select.toArray(new Expression<?>[0]))
+                .from(member);
+
+        boolean needsTeam = fields.contains(MemberTeamField.TEAM_ID)
+                || fields.contains(MemberTeamField.TEAM_NAME)
+                || StringUtils.hasText(condition.getTeamName());
+        if(needsTeam){
+            query.leftJoin(member.team, team);
+        }
+
+        List<Tuple> tuples = queryDeadlines.apply(query
+                .where(
+                        usernameCandidates(condition),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                ))
+                .fetch();
+
+        MemberTeamRows rows = new MemberTeamRows(fields, tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.addRow(
+                    tuple.get(member.id),
+                    tuple.get(member.username),
+                    tuple.get(member.age),
+                    tuple.get(team.id),
+                    tuple.get(team.name)
+            );
+        }
+        return rows;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return StringUtils.hasText(teamName) ? member.team.name.eq(teamName) : null;
+    /**
+     * where 에 맞는 회원을 벌크 update 하고 바뀐 회원을 변경 피드에 남긴다.
+     * 대상 id 를 먼저 조회하고 그 id 로만 update 하므로 피드에 남는 회원과 실제로 바뀐 행이 같다.
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 실행 전에 flush, 실행 후에 clear 한다
+     */
+    @Transactional
+    public long bulkUpdate(Predicate where, UnaryOperator<JPAUpdateClause> set){
+        em.flush();
+        Map<Long, Long> previousTeamIds = selectTeamIds(where);
+        List<Long> ids = new ArrayList<>(previousTeamIds.keySet());
+
+        long updated = 0;
+        Map<Long, Long> teamIds = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE));
+            updated += set.apply(queryFactory.update(member))
+                    .where(member.id.in(chunk))
+                    .execute();
+            // set 으로 팀이 바뀌었을 수 있으므로 바뀐 뒤의 팀을 다시 읽는다
+            teamIds.putAll(selectTeamIds(member.id.in(chunk)));
+        }
+
+        em.clear();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Long id : ids) {
+            changeCapture.stage(session, new MemberChanged(ChangeType.UPDATE, id, teamIds.get(id), previousTeamIds.get(id)));
+        }
+        return updated;
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    /**
+     * where 에 맞는 회원을 벌크 delete 하고 삭제된 회원을 변경 피드에 남긴다
+     */
+    @Transactional
+    public long bulkDelete(Predicate where){
+        em.flush();
+        Map<Long, Long> teamIds = selectTeamIds(where);
+        List<Long> ids = new ArrayList<>(teamIds.keySet());
+
+        long deleted = 0;
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE));
+            deleted += queryFactory.delete(member)
+                    .where(member.id.in(chunk))
+                    .execute();
+        }
+
+        em.clear();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Long id : ids) {
+            Long teamId = teamIds.get(id);
+            changeCapture.stage(session, new MemberChanged(ChangeType.DELETE, id, teamId, teamId));
+        }
+        return deleted;
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    private Map<Long, Long> selectTeamIds(Predicate where) {
+        List<Tuple> tuples = queryFactory
+                .select(member.id, member.team.id)
+                .from(member)
+                .where(where)
+                .orderBy(member.id.asc())
+                .fetch();
+
+        Map<Long, Long> teamIds = new LinkedHashMap<>();
+        for (Tuple tuple : tuples) {
+            teamIds.put(tuple.get(member.id), tuple.get(member.team.id));
+        }
+        return teamIds;
     }
 
+    /**
+     * CONTAINS 검색이면 트라이그램 색인으로 후보 id 를 좁힌다. 색인이 꺼져 있거나 좁힐 수 없으면 null
+     */
+    private BooleanExpression usernameCandidates(MemberSearchCondition condition){
+        UsernameTrigramIndex index = usernameTrigramIndex.getIfAvailable();
+        return index == null ? null : index.memberIdCandidates(condition);
+    }
 }
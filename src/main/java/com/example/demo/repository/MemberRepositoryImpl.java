@@ -2,101 +2,170 @@ package com.example.demo.repository;
 
 import com.example.demo.dto.MemberSearchCondition;
 import com.example.demo.dto.MemberTeamDto;
-import com.example.demo.dto.QMemberTeamDto;
-import com.example.demo.entity.Member;
+import com.example.demo.repository.deadline.ConcurrentQuery;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.deadline.RunningStatements;
+import com.example.demo.repository.ngram.UsernameTrigramIndex;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static com.example.demo.entity.QMember.member;
 import static com.example.demo.entity.QTeam.team;
+import static com.example.demo.repository.MemberSearchExpressions.*;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Executor countExecutor;
+    private final ObjectProvider<UsernameTrigramIndex> usernameTrigramIndex;
+    private final QueryDeadlines queryDeadlines;
+    private final RunningStatements runningStatements;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em,
+                                EntityManagerFactory entityManagerFactory,
+                                @Qualifier("applicationTaskExecutor") Executor countExecutor,
+                                ObjectProvider<UsernameTrigramIndex> usernameTrigramIndex,
+                                QueryDeadlines queryDeadlines,
+                                RunningStatements runningStatements) {
         this.queryFactory = new JPAQueryFactory(em);
+        this.entityManagerFactory = entityManagerFactory;
+        this.countExecutor = countExecutor;
+        this.usernameTrigramIndex = usernameTrigramIndex;
+        this.queryDeadlines = queryDeadlines;
+        this.runningStatements = runningStatements;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition){
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
+        return queryDeadlines.apply(queryFactory
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameCandidates(condition),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeLoe()),
+                        ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
+                ))
                 .fetch();
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return StringUtils.hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return StringUtils.hasText(teamName) ? member.team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageComplex(condition, pageable, PageCountMode.SEQUENTIAL);
     }
 
     @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PageCountMode countMode) {
+        // 후보는 한 번만 구해서 content 와 count 쿼리에 같이 쓴다
+        BooleanExpression usernameCandidates = usernameCandidates(condition);
+        ConcurrentQuery<Long> concurrentCount = countMode == PageCountMode.CONCURRENT
+                ? ConcurrentQuery.start(() -> countOnNewConnection(condition, usernameCandidates), countExecutor, runningStatements)
+                : null;
+
+        List<MemberTeamDto> results = queryDeadlines.apply(queryFactory
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameCandidates,
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeLoe()),
+                        ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(pageable.getPageSize()))
                 .fetch();
 
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
+        if (concurrentCount == null) {
+            JPAQuery<Long> countQuery = queryDeadlines.apply(countQuery(queryFactory, condition, usernameCandidates));
+            return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchOne);
+        }
+
+        try {
+            return PageableExecutionUtils.getPage(results, pageable, concurrentCount::join);
+        } finally {
+            // 마지막 페이지라 count 가 필요 없으면 기다리지 않고, 실행 중인 count statement 도 취소한다
+            concurrentCount.cancel();
+        }
+    }
+
+    private Long countOnNewConnection(MemberSearchCondition condition, BooleanExpression usernameCandidates) {
+        EntityManager countEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            return countQuery(new JPAQueryFactory(countEntityManager), condition, usernameCandidates).fetchOne();
+        } finally {
+            countEntityManager.close();
+        }
+    }
+
+    private JPAQuery<Long> countQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition,
+                                      BooleanExpression usernameCandidates) {
+        return queryFactory
+                .select(MEMBER_COUNT)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameCandidates,
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeLoe()),
+                        ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        // count 쿼리 없이 한 건을 더 조회해서 다음 페이지 존재 여부만 판단
+        List<MemberTeamDto> results = queryDeadlines.apply(queryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameCandidates(condition),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1))
+                .fetch();
+
+        boolean hasNext = results.size() > pageable.getPageSize();
+        if (hasNext) {
+            results.remove(pageable.getPageSize());
+        }
+
+        return new SliceImpl<>(results, pageable, hasNext);
+    }
 
-        return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchOne);
+    /**
+     * CONTAINS 검색이면 트라이그램 색인으로 후보 id 를 좁힌다. 색인이 꺼져 있거나 좁힐 수 없으면 null
+     */
+    private BooleanExpression usernameCandidates(MemberSearchCondition condition) {
+        UsernameTrigramIndex index = usernameTrigramIndex.getIfAvailable();
+        return index == null ? null : index.memberIdCandidates(condition);
     }
 }
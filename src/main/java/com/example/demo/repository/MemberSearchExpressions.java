@@ -0,0 +1,68 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.QMemberTeamDto;
+import com.example.demo.dto.UsernameMatch;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import org.springframework.util.StringUtils;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+
+/**
+ * 회원 검색 쿼리에서 공통으로 쓰는 식.
+ * 프로젝션, alias, count 처럼 조건과 상관없이 항상 같은 식은 불변이므로 한 번만 만들어서 공유하고,
+ * 호출마다 새로 만드는 건 검색 조건 값을 바인딩하는 predicate 뿐이다.
+ */
+public final class MemberSearchExpressions {
+
+    public static final QMemberTeamDto MEMBER_TEAM_DTO = new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")
+    );
+
+    public static final NumberExpression<Long> MEMBER_COUNT = member.count();
+
+    private MemberSearchExpressions() {
+    }
+
+    /**
+     * 대소문자 무시 비교는 lower(member.username) 대신 인덱스가 있는 member.usernameLower 를 쓴다.
+     * lower() 를 where 절에 쓰면 username 인덱스를 탈 수 없다
+     */
+    public static BooleanExpression usernameEq(String username, UsernameMatch match) {
+        if (!StringUtils.hasText(username)) {
+            return null;
+        }
+        if (match == null) {
+            match = UsernameMatch.EXACT;
+        }
+        return switch (match) {
+            case EXACT -> member.username.eq(username);
+            case PREFIX -> member.username.startsWith(username);
+            case CONTAINS -> member.username.contains(username);
+            case IGNORE_CASE -> member.usernameLower.eq(UsernameMatch.normalize(username));
+            case PREFIX_IGNORE_CASE -> member.usernameLower.startsWith(UsernameMatch.normalize(username));
+            case CONTAINS_IGNORE_CASE -> member.usernameLower.contains(UsernameMatch.normalize(username));
+        };
+    }
+
+    /**
+     * leftJoin(member.team, team) 으로 조인된 team 을 사용한다.
+     * member.team.name 으로 쓰면 묵시적 조인이 하나 더 생긴다
+     */
+    public static BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.MemberAgeStats;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+import static com.example.demo.repository.MemberSearchExpressions.*;
+
+/**
+ * 회원 통계를 DB 에서 group by 로 집계한다
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberStatsRepository {
+
+    public static final List<Integer> DEFAULT_BUCKET_BOUNDS = List.of(0, 10, 20, 30, 40, 50, 60);
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryDeadlines queryDeadlines;
+
+    /**
+     * 팀 x 나이 구간별 count/sum/avg/min/max 를 한 번의 group by 쿼리로 구한다.
+     * rollup 이면 ROLLUP(team, ageBucket) 처럼 팀 소계와 전체 합계 행을 붙인다.
+     * H2 는 GROUP BY ROLLUP 을 지원하지 않아서 소계는 조회한 집계 행으로 계산한다.
+     *
+     * @param bucketBounds 오름차순 구간 시작값. 나이는 자신보다 작거나 같은 가장 큰 시작값의 구간에 들어가고,
+     *                     첫 시작값보다 어리면 첫 구간에 들어간다
+     * @throws IllegalArgumentException bucketBounds 가 비었거나 오름차순이 아닐 때
+     */
+    public MemberAgeStats teamAgeStats(MemberSearchCondition condition, List<Integer> bucketBounds, boolean rollup) {
+        NumberExpression<Integer> ageBucket = ageBucket(bucketBounds);
+        NumberExpression<Long> count = member.count();
+        NumberExpression<Integer> sumAge = member.age.sum();
+        NumberExpression<Integer> minAge = member.age.min();
+        NumberExpression<Integer> maxAge = member.age.max();
+
+        List<Tuple> rows = queryDeadlines.apply(queryFactory
+                .select(team.id, team.name, ageBucket, count, sumAge, minAge, maxAge)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .groupBy(team.id, team.name, ageBucket)
+                .orderBy(team.id.asc().nullsFirst(), ageBucket.asc()))
+                .fetch();
+
+        MemberAgeStats stats = new MemberAgeStats(bucketBounds);
+        Subtotal teamSubtotal = null;
+        Subtotal grandTotal = new Subtotal(null, null);
+        for (Tuple row : rows) {
+            Long teamId = row.get(team.id);
+            String teamName = row.get(team.name);
+            // 집계 함수의 실제 반환 타입은 DB/Hibernate 에 따라 Integer, Long 이 섞여서 Number 로 읽는다
+            long rowCount = row.get(3, Number.class).longValue();
+            long rowSum = row.get(4, Number.class).longValue();
+            int rowMin = row.get(5, Number.class).intValue();
+            int rowMax = row.get(6, Number.class).intValue();
+
+            if (rollup && teamSubtotal != null && !Objects.equals(teamSubtotal.teamId, teamId)) {
+                teamSubtotal.addTo(stats, MemberAgeStats.TEAM_SUBTOTAL);
+                teamSubtotal = null;
+            }
+            if (teamSubtotal == null) {
+                teamSubtotal = new Subtotal(teamId, teamName);
+            }
+
+            stats.addRow(MemberAgeStats.DETAIL, teamId, teamName, row.get(2, Number.class).intValue(),
+                    rowCount, rowSum, rowMin, rowMax);
+            teamSubtotal.add(rowCount, rowSum, rowMin, rowMax);
+            grandTotal.add(rowCount, rowSum, rowMin, rowMax);
+        }
+
+        if (rollup) {
+            if (teamSubtotal != null) {
+                teamSubtotal.addTo(stats, MemberAgeStats.TEAM_SUBTOTAL);
+            }
+            grandTotal.addTo(stats, MemberAgeStats.GRAND_TOTAL);
+        }
+        return stats;
+    }
+
+    /**
+     * 구간 경계를 바인딩 파라미터로 넘기면 select 와 group by 의 case 식이 서로 다른 식으로 취급되므로 리터럴로 넣는다
+     */
+    static NumberExpression<Integer> ageBucket(List<Integer> bucketBounds) {
+        if (bucketBounds.isEmpty()) {
+            throw new IllegalArgumentException("bucketBounds is empty");
+        }
+        for (int i = 1; i < bucketBounds.size(); i++) {
+            if (bucketBounds.get(i) <= bucketBounds.get(i - 1)) {
+                throw new IllegalArgumentException("bucketBounds must be ascending: " + bucketBounds);
+            }
+        }
+
+        int last = bucketBounds.size() - 1;
+        if (last == 0) {
+            return literal(bucketBounds.get(0));
+        }
+        CaseBuilder.Cases<Integer, NumberExpression<Integer>> cases = new CaseBuilder()
+                .when(member.age.lt(literal(bucketBounds.get(1))))
+                .then(literal(bucketBounds.get(0)));
+        for (int i = 2; i <= last; i++) {
+            cases = cases
+                    .when(member.age.lt(literal(bucketBounds.get(i))))
+                    .then(literal(bucketBounds.get(i - 1)));
+        }
+        return cases.otherwise(literal(bucketBounds.get(last)));
+    }
+
+    private static NumberExpression<Integer> literal(int value) {
+        return Expressions.numberTemplate(Integer.class, Integer.toString(value));
+    }
+
+    private static class Subtotal {
+
+        private final Long teamId;
+        private final String teamName;
+        private long count;
+        private long sum;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+
+        Subtotal(Long teamId, String teamName) {
+            this.teamId = teamId;
+            this.teamName = teamName;
+        }
+
+        void add(long count, long sum, int min, int max) {
+            this.count += count;
+            this.sum += sum;
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+        }
+
+        void addTo(MemberAgeStats stats, int grouping) {
+            stats.addRow(grouping, teamId, teamName, null, count, sum, min, max);
+        }
+    }
+}
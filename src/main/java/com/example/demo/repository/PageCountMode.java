@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+public enum PageCountMode {
+
+    /**
+     * 컨텐츠 조회 후 같은 커넥션에서 count 쿼리 실행
+     */
+    SEQUENTIAL,
+
+    /**
+     * 별도 커넥션에서 count 쿼리를 컨텐츠 조회와 동시에 실행
+     */
+    CONCURRENT
+}
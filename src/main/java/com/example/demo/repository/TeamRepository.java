@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+}
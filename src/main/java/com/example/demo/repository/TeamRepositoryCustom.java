@@ -0,0 +1,19 @@
+package com.example.demo.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Team.members 컬렉션을 초기화하지 않고 회원 수와 소속 여부를 조회한다.
+ * 아직 저장하지 않은 팀처럼 id 가 null 이면 쿼리 없이 0, false 다
+ */
+public interface TeamRepositoryCustom {
+    long countMembers(Long teamId);
+
+    /**
+     * 팀 id 별 회원 수. 회원이 없거나 없는 팀 id 는 0 이다. null 은 결과에서 빠진다
+     */
+    Map<Long, Long> countMembersByTeamIds(Collection<Long> teamIds);
+
+    boolean containsMember(Long teamId, Long memberId);
+}
@@ -0,0 +1,81 @@
+package com.example.demo.repository;
+
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.repository.MemberJpaRepository.IN_CHUNK_SIZE;
+
+@Transactional(readOnly = true)
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryDeadlines queryDeadlines;
+
+    public TeamRepositoryImpl(EntityManager em, QueryDeadlines queryDeadlines) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.queryDeadlines = queryDeadlines;
+    }
+
+    @Override
+    public long countMembers(Long teamId) {
+        if (teamId == null) {
+            return 0;
+        }
+        Long count = queryDeadlines.apply(queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.team.id.eq(teamId)))
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * IN_CHUNK_SIZE 개 팀마다 group by 쿼리 한 번. member.team.id 는 외래키 컬럼이라 team 조인은 하지 않는다
+     */
+    @Override
+    public Map<Long, Long> countMembersByTeamIds(Collection<Long> teamIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(teamIds));
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        distinctIds.remove(null);
+        for (Long teamId : distinctIds) {
+            counts.put(teamId, 0L);
+        }
+        for (int from = 0; from < distinctIds.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(distinctIds.size(), from + IN_CHUNK_SIZE));
+            List<Tuple> rows = queryDeadlines.apply(queryFactory
+                    .select(member.team.id, member.count())
+                    .from(member)
+                    .where(member.team.id.in(chunk))
+                    .groupBy(member.team.id))
+                    .fetch();
+            for (Tuple row : rows) {
+                counts.put(row.get(member.team.id), row.get(member.count()));
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public boolean containsMember(Long teamId, Long memberId) {
+        if (teamId == null || memberId == null) {
+            return false;
+        }
+        Integer found = queryDeadlines.apply(queryFactory
+                .selectOne()
+                .from(member)
+                .where(member.id.eq(memberId), member.team.id.eq(teamId)))
+                .fetchFirst();
+        return found != null;
+    }
+}
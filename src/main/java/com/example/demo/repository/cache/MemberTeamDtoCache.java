@@ -0,0 +1,206 @@
+package com.example.demo.repository.cache;
+
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.changefeed.ChangeBatch;
+import com.example.demo.repository.changefeed.ChangeEvent;
+import com.example.demo.repository.changefeed.ChangeFeedSubscription;
+import com.example.demo.repository.changefeed.ChangeType;
+import com.example.demo.repository.changefeed.MemberChangeFeed;
+import com.example.demo.repository.changefeed.MemberChanged;
+import com.example.demo.repository.changefeed.TeamChanged;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * memberId 로 MemberTeamDto 를 찾는 2단 캐시.
+ * <ol>
+ *     <li>요청 범위 맵: 같은 요청 안에서 같은 회원을 다시 찾으면 공유 캐시를 거치지 않고 복사도 하지 않는다</li>
+ *     <li>공유 LRU: capacity 개까지 힙에 둔다</li>
+ * </ol>
+ * 둘 다 없는 id 는 모아서 {@link MemberJpaRepository#findMemberTeamDtosByIds} 한 번으로 읽는다.
+ * <p>
+ * 무효화는 {@link MemberChangeFeed} 를 따른다. 조회할 때마다 피드에서 새 변경을 읽어서 바뀐 회원과, 이름이 바뀌거나 삭제된 팀의 회원을 지운다.
+ * 조회 중에 변경이 커밋되었으면 읽어온 값이 이미 낡았을 수 있으므로 공유 캐시에 넣지 않는다.
+ * 피드를 놓쳐서 gap 이 생기면 전부 비운다.
+ */
+@Component
+public class MemberTeamDtoCache {
+
+    private static final String REQUEST_ATTRIBUTE = MemberTeamDtoCache.class.getName() + ".REQUEST";
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ChangeFeedSubscription subscription;
+    private final int capacity;
+
+    private final LinkedHashMap<Long, MemberTeamDto> shared;
+
+    private long requestHits;
+    private long sharedHits;
+    private long misses;
+    private long loads;
+    private long invalidations;
+    private long evictions;
+    private long resets;
+
+    public MemberTeamDtoCache(MemberJpaRepository memberJpaRepository,
+                              MemberChangeFeed changeFeed,
+                              @Value("${member.cache.capacity:10000}") int capacity) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.subscription = changeFeed.subscribe(MemberTeamDtoCache.class.getName());
+        this.capacity = capacity;
+        this.shared = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MemberTeamDto> eldest) {
+                if (size() > MemberTeamDtoCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 요청한 id 순서대로 돌려준다. 중복 id 는 한 번만, 없는 회원은 빠진다.
+     * 돌려준 DTO 는 요청 안에서 공유되므로 수정하지 않는다
+     */
+    public List<MemberTeamDto> findMemberTeamDtosByIds(Collection<Long> ids) {
+        RequestTier request = requestTier();
+        Map<Long, MemberTeamDto> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long version;
+
+        synchronized (this) {
+            version = sync(request);
+            for (Long id : new LinkedHashSet<>(ids)) {
+                MemberTeamDto dto = request == null ? null : request.dtos.get(id);
+                if (dto != null) {
+                    requestHits++;
+                } else if ((dto = shared.get(id)) != null) {
+                    sharedHits++;
+                    dto = copy(dto);
+                } else {
+                    misses++;
+                    missing.add(id);
+                    continue;
+                }
+                found.put(id, dto);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<MemberTeamDto> loaded = memberJpaRepository.findMemberTeamDtosByIds(missing);
+            synchronized (this) {
+                loads++;
+                if (sync(request) == version) {
+                    for (MemberTeamDto dto : loaded) {
+                        shared.put(dto.getMemberId(), dto);
+                    }
+                }
+            }
+            for (MemberTeamDto dto : loaded) {
+                found.put(dto.getMemberId(), copy(dto));
+            }
+        }
+
+        List<MemberTeamDto> results = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            MemberTeamDto dto = found.get(id);
+            if (dto != null) {
+                results.add(dto);
+                if (request != null) {
+                    request.dtos.put(id, dto);
+                }
+            }
+        }
+        return results;
+    }
+
+    public synchronized MemberTeamDtoCacheStats stats() {
+        return new MemberTeamDtoCacheStats(shared.size(), capacity, requestHits, sharedHits, misses,
+                loads, invalidations, evictions, resets);
+    }
+
+    /**
+     * 피드의 새 변경을 공유 캐시에 반영하고 반영한 위치를 돌려준다.
+     * 변경 이벤트는 먼저 sync 한 요청 하나만 보게 되므로, 요청 범위 맵은 id 별로 지우지 않고 위치가 바뀌었으면 통째로 비운다
+     */
+    private long sync(RequestTier request) {
+        while (true) {
+            ChangeBatch batch = subscription.poll(1000);
+            if (batch.isGap()) {
+                resets++;
+                shared.clear();
+            }
+            if (batch.isEmpty()) {
+                subscription.commit(batch);
+                break;
+            }
+            for (ChangeEvent event : batch.getEvents()) {
+                if (event instanceof MemberChanged changed) {
+                    invalidate(changed.getMemberId());
+                } else if (event instanceof TeamChanged changed && changed.getType() != ChangeType.INSERT) {
+                    invalidateTeam(changed.getTeamId());
+                }
+            }
+            subscription.commit(batch);
+        }
+
+        long version = subscription.getOffset();
+        if (request != null && request.version != version) {
+            request.dtos.clear();
+            request.version = version;
+        }
+        return version;
+    }
+
+    private void invalidate(Long memberId) {
+        if (shared.remove(memberId) != null) {
+            invalidations++;
+        }
+    }
+
+    private void invalidateTeam(Long teamId) {
+        int before = shared.size();
+        shared.values().removeIf(dto -> Objects.equals(dto.getTeamId(), teamId));
+        invalidations += before - shared.size();
+    }
+
+    private static RequestTier requestTier() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        RequestTier tier = (RequestTier) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (tier == null) {
+            tier = new RequestTier();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, tier, RequestAttributes.SCOPE_REQUEST);
+        }
+        return tier;
+    }
+
+    private static MemberTeamDto copy(MemberTeamDto dto) {
+        return new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName());
+    }
+
+    /**
+     * 한 요청 안에서만 쓰는 맵. version 은 마지막으로 맞춘 피드 위치
+     */
+    private static class RequestTier {
+
+        private final Map<Long, MemberTeamDto> dtos = new HashMap<>();
+        private long version = -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MemberTeamDtoCacheStats {
+
+    private int size;
+    private int capacity;
+    private long requestHits;
+    private long sharedHits;
+    private long misses;
+    private long loads;
+    private long invalidations;
+    private long evictions;
+    private long resets;
+
+}
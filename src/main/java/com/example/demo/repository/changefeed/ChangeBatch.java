@@ -0,0 +1,24 @@
+package com.example.demo.repository.changefeed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * fromOffset 부터 이어지는 이벤트 목록. i 번째 이벤트의 offset 은 fromOffset + i 이다.
+ * gap 이 true 면 요청한 offset 의 이벤트가 이미 버려져서 중간이 빠졌다는 뜻이므로 소비자는 전체를 다시 맞춰야 한다.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangeBatch {
+
+    private final long fromOffset;
+    private final long nextOffset;
+    private final boolean gap;
+    private final List<ChangeEvent> events;
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repository.changefeed;
+
+/**
+ * {@link MemberChangeFeed} 에 쌓이는 변경 한 건
+ */
+public interface ChangeEvent {
+
+    ChangeType getType();
+}
@@ -0,0 +1,18 @@
+package com.example.demo.repository.changefeed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class ChangeFeedStats {
+
+    private long oldestOffset;
+    private long latestOffset;
+    private int capacity;
+    private long appendedBatches;
+    private Map<String, Long> consumerOffsets;
+
+}
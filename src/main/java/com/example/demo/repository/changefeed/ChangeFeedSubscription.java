@@ -0,0 +1,37 @@
+package com.example.demo.repository.changefeed;
+
+/**
+ * 소비자 하나의 읽기 위치. poll 로 가져온 배치를 처리한 뒤 commit 해야 offset 이 앞으로 간다
+ */
+public class ChangeFeedSubscription {
+
+    private final String consumerId;
+    private final MemberChangeFeed feed;
+    private volatile long offset;
+
+    ChangeFeedSubscription(String consumerId, MemberChangeFeed feed, long offset) {
+        this.consumerId = consumerId;
+        this.feed = feed;
+        this.offset = offset;
+    }
+
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public ChangeBatch poll(int maxEvents) {
+        return feed.read(offset, maxEvents);
+    }
+
+    public ChangeBatch poll(int maxEvents, long timeoutMillis) throws InterruptedException {
+        return feed.read(offset, maxEvents, timeoutMillis);
+    }
+
+    public synchronized void commit(ChangeBatch batch) {
+        offset = Math.max(offset, batch.getNextOffset());
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.repository.changefeed;
+
+public enum ChangeType {
+    INSERT, UPDATE, DELETE
+}
@@ -0,0 +1,138 @@
+package com.example.demo.repository.changefeed;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate 이벤트로 Member/Team 변경을 세션(트랜잭션) 단위로 모았다가,
+ * 커밋이 성공하면 after-transaction-completion 시점에 {@link MemberChangeFeed} 에 한 배치로 붙인다. 롤백되면 버린다.
+ * <p>
+ * 벌크 update/delete 는 Hibernate 이벤트가 없으므로 쿼리를 실행한 쪽에서 {@link #stage} 로 직접 넣는다.
+ */
+@Component
+public class MemberChangeCapture implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MemberChangeFeed feed;
+
+    private final Map<SessionImplementor, List<ChangeEvent>> pending = new ConcurrentHashMap<>();
+
+    public MemberChangeCapture(EntityManagerFactory entityManagerFactory, MemberChangeFeed feed) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.feed = feed;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 함께 발행될 이벤트를 추가한다
+     */
+    public void stage(SessionImplementor session, ChangeEvent event) {
+        pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess((success, completedSession) -> {
+                List<ChangeEvent> events = pending.remove(completedSession);
+                if (success && events != null) {
+                    feed.append(events);
+                }
+            });
+            return new ArrayList<>();
+        }).add(event);
+    }
+
+    /**
+     * 세션에 커밋을 기다리는 Member 변경이 있는지. 세션은 한 스레드에서만 쓰므로 그 스레드에서 부른다
+     */
+    public boolean hasPendingMemberChanges(SessionImplementor session) {
+        List<ChangeEvent> events = pending.get(session);
+        if (events == null) {
+            return false;
+        }
+        for (ChangeEvent event : events) {
+            if (event instanceof MemberChanged) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            Long teamId = teamId(member.getTeam());
+            stage(event.getSession(), new MemberChanged(ChangeType.INSERT, member.getId(), teamId, teamId));
+        } else if (event.getEntity() instanceof Team team) {
+            stage(event.getSession(), new TeamChanged(ChangeType.INSERT, team.getId()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            Long teamId = teamId(member.getTeam());
+            Long previousTeamId = teamId;
+            Object[] oldState = event.getOldState();
+            if (oldState != null) {
+                previousTeamId = teamId((Team) oldState[propertyIndex(event.getPersister(), "team")]);
+            }
+            stage(event.getSession(), new MemberChanged(ChangeType.UPDATE, member.getId(), teamId, previousTeamId));
+        } else if (event.getEntity() instanceof Team team) {
+            stage(event.getSession(), new TeamChanged(ChangeType.UPDATE, team.getId()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            Long teamId = teamId(member.getTeam());
+            stage(event.getSession(), new MemberChanged(ChangeType.DELETE, member.getId(), teamId, teamId));
+        } else if (event.getEntity() instanceof Team team) {
+            stage(event.getSession(), new TeamChanged(ChangeType.DELETE, team.getId()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static Long teamId(Team team) {
+        return team == null ? null : team.getId();
+    }
+
+    private static int propertyIndex(EntityPersister persister, String propertyName) {
+        String[] propertyNames = persister.getPropertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(propertyName)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("no property " + propertyName + " in " + persister.getEntityName());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.repository.changefeed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 커밋된 Member/Team 변경을 커밋 순서대로 쌓아두는 프로세스 내 변경 로그.
+ * 한 트랜잭션의 변경은 한 번에 이어 붙여지고, 각 이벤트는 0 부터 1씩 증가하는 offset 을 가진다.
+ * 최근 capacity 개만 남기고 그보다 오래된 이벤트는 버린다.
+ * <p>
+ * 소비자는 {@link #subscribe(String)} 로 자기 offset 을 가진 구독을 받아서 poll/commit 한다.
+ */
+@Component
+public class MemberChangeFeed {
+
+    private final ChangeEvent[] ring;
+    private long nextOffset;
+    private long appendedBatches;
+
+    private final Map<String, ChangeFeedSubscription> subscriptions = new ConcurrentHashMap<>();
+
+    public MemberChangeFeed(@Value("${member.change-feed.capacity:100000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.ring = new ChangeEvent[capacity];
+    }
+
+    public synchronized void append(List<? extends ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (ChangeEvent event : events) {
+            ring[(int) (nextOffset % ring.length)] = event;
+            nextOffset++;
+        }
+        appendedBatches++;
+        notifyAll();
+    }
+
+    /**
+     * 다음에 쌓일 이벤트의 offset. 변경이 있을 때마다 커지므로 데이터 버전으로도 쓸 수 있다
+     */
+    public synchronized long latestOffset() {
+        return nextOffset;
+    }
+
+    public synchronized long oldestOffset() {
+        return Math.max(0, nextOffset - ring.length);
+    }
+
+    /**
+     * 같은 consumerId 로 다시 구독하면 기존 offset 을 이어서 쓴다. 처음 구독하면 지금 이후의 변경부터 받는다
+     */
+    public ChangeFeedSubscription subscribe(String consumerId) {
+        return subscriptions.computeIfAbsent(consumerId, id -> new ChangeFeedSubscription(id, this, latestOffset()));
+    }
+
+    public void unsubscribe(String consumerId) {
+        subscriptions.remove(consumerId);
+    }
+
+    public synchronized ChangeBatch read(long fromOffset, int maxEvents) {
+        long oldest = oldestOffset();
+        boolean gap = fromOffset < oldest;
+        long start = Math.min(Math.max(fromOffset, oldest), nextOffset);
+        long end = Math.min(nextOffset, start + maxEvents);
+
+        List<ChangeEvent> events = new ArrayList<>((int) (end - start));
+        for (long offset = start; offset < end; offset++) {
+            events.add(ring[(int) (offset % ring.length)]);
+        }
+        return new ChangeBatch(start, end, gap, Collections.unmodifiableList(events));
+    }
+
+    /**
+     * fromOffset 이후 이벤트가 생길 때까지 최대 timeoutMillis 기다린다
+     */
+    public synchronized ChangeBatch read(long fromOffset, int maxEvents, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (nextOffset <= fromOffset && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return read(fromOffset, maxEvents);
+    }
+
+    public synchronized ChangeFeedStats stats() {
+        Map<String, Long> offsets = new TreeMap<>();
+        subscriptions.forEach((id, subscription) -> offsets.put(id, subscription.getOffset()));
+        return new ChangeFeedStats(oldestOffset(), nextOffset, ring.length, appendedBatches, offsets);
+    }
+}
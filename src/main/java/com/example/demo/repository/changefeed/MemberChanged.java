@@ -0,0 +1,24 @@
+package com.example.demo.repository.changefeed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * previousTeamId 는 UPDATE 로 팀이 바뀌었을 때만 이전 팀 id 이고, 그 외에는 teamId 와 같다.
+ * 벌크 DELETE 처럼 팀을 알 수 없으면 teamId 는 삭제 직전 값이다.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MemberChanged implements ChangeEvent {
+
+    private final ChangeType type;
+    private final Long memberId;
+    private final Long teamId;
+    private final Long previousTeamId;
+
+    public boolean isTeamChanged() {
+        return teamId == null ? previousTeamId != null : !teamId.equals(previousTeamId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.repository.changefeed;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamField;
+import com.example.demo.dto.UsernameMatch;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 회원 검색 응답의 ETag. {@link MemberChangeFeed#latestOffset()} 를 member/team 데이터 버전으로 쓰고,
+ * 같은 결과를 내는 조건은 같은 값이 되도록 정규화한 검색 조건을 붙인다.
+ * offset 은 메모리에만 있어서 재시작하면 0 부터 다시 세므로, 시작할 때 만든 epoch 를 앞에 붙여
+ * 이전 프로세스나 다른 인스턴스가 준 ETag 와 겹치지 않게 한다.
+ * <p>
+ * 쿼리를 실행하기 전에 만들어야 한다. 그래야 응답 내용이 ETag 의 버전보다 오래되지 않는다
+ */
+@Component
+public class MemberSearchETags {
+
+    private final MemberChangeFeed feed;
+    private final String epoch = UUID.randomUUID().toString().replace("-", "");
+
+    public MemberSearchETags(MemberChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    /**
+     * @param representation 같은 검색이라도 응답 형식(Accept)이 다르면 ETag 도 달라야 한다
+     */
+    public String etag(MemberSearchCondition condition, Set<MemberTeamField> fields, String representation) {
+        String key = normalize(condition) + "|" + fields + "|" + (representation == null ? "" : representation);
+        return epoch + "-" + feed.latestOffset() + "-" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * MemberSearchExpressions 와 같은 규칙으로, 조건에서 빠지는 값은 버리고 대소문자 무시 검색어는 소문자로 바꾼다
+     */
+    static String normalize(MemberSearchCondition condition) {
+        String username = null;
+        UsernameMatch match = null;
+        if (StringUtils.hasText(condition.getUsername())) {
+            match = condition.getUsernameMatch() == null ? UsernameMatch.EXACT : condition.getUsernameMatch();
+            username = match.isIgnoreCase() ? UsernameMatch.normalize(condition.getUsername()) : condition.getUsername();
+        }
+        String teamName = StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null;
+        return match + ":" + quote(username) + "|" + quote(teamName) + "|" + condition.getAgeGoe() + "|" + condition.getAgeLoe();
+    }
+
+    /**
+     * 값 안의 구분자와 null 을 구별할 수 있게 길이를 붙인다
+     */
+    private static String quote(String value) {
+        return value == null ? "null" : value.length() + ":" + value;
+    }
+}
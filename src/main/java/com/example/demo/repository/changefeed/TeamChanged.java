@@ -0,0 +1,14 @@
+package com.example.demo.repository.changefeed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class TeamChanged implements ChangeEvent {
+
+    private final ChangeType type;
+    private final Long teamId;
+}
@@ -0,0 +1,62 @@
+package com.example.demo.repository.deadline;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 다른 스레드에서 실행하는 쿼리 하나. future.cancel 만으로는 이미 실행 중인 쿼리가 멈추지 않으므로,
+ * 실행 중인 스레드를 기억해 두었다가 {@link #cancel()} 때 그 스레드의 statement 를 {@link RunningStatements} 로 Statement.cancel 한다.
+ * 스레드는 쿼리를 실행하는 동안에만 기억하므로 풀의 다음 작업을 취소하지 않는다
+ */
+public class ConcurrentQuery<T> {
+
+    private final CompletableFuture<T> future;
+    private final RunningStatements runningStatements;
+    private Thread runner;
+    private boolean cancelled;
+
+    private ConcurrentQuery(Supplier<T> query, Executor executor, RunningStatements runningStatements) {
+        this.runningStatements = runningStatements;
+        this.future = CompletableFuture.supplyAsync(() -> run(query), executor);
+    }
+
+    public static <T> ConcurrentQuery<T> start(Supplier<T> query, Executor executor, RunningStatements runningStatements) {
+        return new ConcurrentQuery<>(query, executor, runningStatements);
+    }
+
+    public T join() {
+        return future.join();
+    }
+
+    /**
+     * 아직 시작하지 않았으면 시작하지 않게 하고, 실행 중이면 statement 를 취소한다. 이미 끝났으면 아무것도 하지 않는다
+     */
+    public synchronized void cancel() {
+        if (future.isDone()) {
+            return;
+        }
+        cancelled = true;
+        future.cancel(false);
+        if (runner != null) {
+            runningStatements.cancel(runner);
+        }
+    }
+
+    private T run(Supplier<T> query) {
+        synchronized (this) {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            runner = Thread.currentThread();
+        }
+        try {
+            return query.get();
+        } finally {
+            synchronized (this) {
+                runner = null;
+            }
+        }
+    }
+}
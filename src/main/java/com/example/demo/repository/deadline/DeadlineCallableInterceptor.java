@@ -0,0 +1,65 @@
+package com.example.demo.repository.deadline;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 비동기 요청(Callable, StreamingResponseBody)의 마감을 작업 스레드로 옮기고, 연결이 끊기거나 비동기 타임아웃이 나면 취소한다.
+ * <p>
+ * 동기 요청은 서블릿 스레드가 JDBC 에서 막혀 있는 동안 컨테이너가 연결 끊김을 알려줄 방법이 없다.
+ * 비동기 요청은 요청 스레드가 먼저 돌아가므로 컨테이너가 AsyncListener.onError / onTimeout 으로 알려주고,
+ * Spring 이 이를 {@link #handleError} / {@link #handleTimeout} 으로 넘긴다. 여기서 {@link RequestDeadline#cancel()} 하면
+ * watchdog 이 작업 스레드에서 실행 중인 statement 를 취소한다
+ */
+public class DeadlineCallableInterceptor implements CallableProcessingInterceptor {
+
+    public static final String ATTRIBUTE = RequestDeadline.class.getName();
+
+    private final QueryDeadlines queryDeadlines;
+
+    public DeadlineCallableInterceptor(QueryDeadlines queryDeadlines) {
+        this.queryDeadlines = queryDeadlines;
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        RequestDeadline deadline = deadline(request);
+        if (deadline != null) {
+            queryDeadlines.resume(deadline);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        RequestDeadline deadline = deadline(request);
+        if (deadline != null) {
+            queryDeadlines.end(deadline);
+        }
+    }
+
+    @Override
+    public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+        cancel(request);
+        return RESULT_NONE;
+    }
+
+    @Override
+    public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+        cancel(request);
+        return RESULT_NONE;
+    }
+
+    private void cancel(NativeWebRequest request) {
+        RequestDeadline deadline = deadline(request);
+        if (deadline != null) {
+            deadline.cancel();
+        }
+    }
+
+    private static RequestDeadline deadline(NativeWebRequest request) {
+        return (RequestDeadline) request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository.deadline;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class QueryDeadlineStats {
+
+    private long defaultTimeoutMs;
+    private long maxTimeoutMs;
+    private int inFlight;
+    // 마감 때문에 실패한 요청 (쿼리 전에 이미 지났거나, JDBC timeout 이나 취소로 끊긴 경우)
+    private long timedOut;
+    // 마감이 지나서 쿼리를 보내지도 않은 횟수
+    private long expiredBeforeQuery;
+    // watchdog 이 실행 중인 statement 를 취소한 횟수
+    private long cancelled;
+
+}
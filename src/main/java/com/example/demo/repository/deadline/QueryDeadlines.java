@@ -0,0 +1,205 @@
+package com.example.demo.repository.deadline;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.StatementOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 요청 마감을 쿼리에 전달한다.
+ * <ul>
+ *     <li>남은 시간을 jakarta.persistence.query.timeout 힌트로 넣는다. JDBC setQueryTimeout 은 초 단위라 올림해서 넣는다</li>
+ *     <li>초 단위로는 늦으므로 watchdog 이 watchdog-interval-ms 마다 마감이 지난 요청 스레드에서 실행 중인 statement 를
+ *     {@link RunningStatements} 로 찾아 Statement.cancel 한다. watchdog 은 @Scheduled 공용 스레드가 아니라 전용 스레드에서 돈다</li>
+ *     <li>쿼리 직전에 이미 마감이 지났으면 DB 에 보내지 않고 {@link QueryTimeoutException} 을 던진다</li>
+ * </ul>
+ * 마감은 요청 스레드에만 묶이므로, 다른 스레드에서 실행하는 쿼리에는 적용되지 않는다.
+ * 예외는 Spring MVC 비동기 요청(Callable, StreamingResponseBody)으로, {@link DeadlineCallableInterceptor} 가 작업 스레드로 옮긴다
+ */
+@Component
+public class QueryDeadlines {
+
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final RunningStatements runningStatements;
+    private final long defaultTimeoutMillis;
+    private final long maxTimeoutMillis;
+    private final long watchdogIntervalMillis;
+    private ScheduledExecutorService watchdog;
+
+    private final Set<RequestDeadline> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong expiredBeforeQuery = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public QueryDeadlines(RunningStatements runningStatements,
+                          @Value("${member.deadline.default-timeout-ms:10000}") long defaultTimeoutMillis,
+                          @Value("${member.deadline.max-timeout-ms:30000}") long maxTimeoutMillis,
+                          @Value("${member.deadline.watchdog-interval-ms:50}") long watchdogIntervalMillis) {
+        this.runningStatements = runningStatements;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.watchdogIntervalMillis = watchdogIntervalMillis;
+    }
+
+    @PostConstruct
+    public void startWatchdog() {
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-deadline-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::cancelExpired, watchdogIntervalMillis, watchdogIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopWatchdog() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 스레드에 마감을 건다. timeoutMillis 가 null 이면 기본값, max 보다 크면 max 를 쓴다
+     */
+    public RequestDeadline begin(Long timeoutMillis) {
+        if (timeoutMillis != null && timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeout must be positive: " + timeoutMillis);
+        }
+        long timeout = Math.min(timeoutMillis == null ? defaultTimeoutMillis : timeoutMillis, maxTimeoutMillis);
+        RequestDeadline deadline = new RequestDeadline(timeout);
+        CURRENT.set(deadline);
+        inFlight.add(deadline);
+        return deadline;
+    }
+
+    public void end(RequestDeadline deadline) {
+        inFlight.remove(deadline);
+        if (CURRENT.get() == deadline) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 비동기 처리로 넘어가 요청 스레드를 떠날 때 부른다. 작업 스레드에서 {@link #resume} 하기 전까지는 watchdog 이 보지 않는다.
+     * 작업 스레드가 먼저 resume 했을 수도 있으므로 아직 이 스레드 것일 때만 뺀다
+     */
+    public void detach(RequestDeadline deadline) {
+        synchronized (deadline) {
+            if (deadline.getOwner() == Thread.currentThread()) {
+                inFlight.remove(deadline);
+            }
+        }
+        if (CURRENT.get() == deadline) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 비동기 작업 스레드에 마감을 다시 건다. 이후로는 시간이 아니라 {@link RequestDeadline#cancel()} 로만 끝난다
+     */
+    public void resume(RequestDeadline deadline) {
+        synchronized (deadline) {
+            deadline.continueOn(Thread.currentThread());
+            inFlight.add(deadline);
+        }
+        CURRENT.set(deadline);
+    }
+
+    public <T> JPAQuery<T> apply(JPAQuery<T> query) {
+        long timeoutMillis = timeoutMillis();
+        if (timeoutMillis == 0) {
+            return query;
+        }
+        return query.setHint(TIMEOUT_HINT, timeoutMillis);
+    }
+
+    /**
+     * querydsl-sql 쿼리. statement 의 query timeout 으로 넣는다
+     */
+    public <T> SQLQuery<T> apply(SQLQuery<T> query) {
+        long timeoutMillis = timeoutMillis();
+        if (timeoutMillis != 0) {
+            query.setStatementOptions(StatementOptions.builder()
+                    .setQueryTimeout((int) Math.min(Integer.MAX_VALUE, timeoutMillis / 1000))
+                    .build());
+        }
+        return query;
+    }
+
+    /**
+     * 현재 마감까지 남은 시간을 초 단위로 올린 ms. 마감이 없거나 시간 제한이 없으면 0
+     */
+    private long timeoutMillis() {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return 0;
+        }
+        long remaining = deadline.remainingMillis();
+        if (remaining <= 0) {
+            expiredBeforeQuery.incrementAndGet();
+            throw new QueryTimeoutException("request deadline of " + deadline.getTimeoutMillis() + "ms exceeded before query");
+        }
+        if (remaining == Long.MAX_VALUE) {
+            return 0;
+        }
+        // JDBC timeout 은 초 단위라 1 초 미만이 0(무제한)이 되지 않게 초 단위로 올린다
+        return (remaining + 999) / 1000 * 1000;
+    }
+
+    public void recordTimeout() {
+        timedOut.incrementAndGet();
+    }
+
+    /**
+     * 마감이 지난 요청 스레드에 실행 중인 statement 가 있으면 취소한다. 실제로 cancel 을 보낸 것만 센다
+     */
+    public void cancelExpired() {
+        for (RequestDeadline deadline : inFlight) {
+            if (deadline.isExpired() && runningStatements.cancel(deadline.getOwner())) {
+                deadline.markCancelled();
+                cancelled.incrementAndGet();
+            }
+        }
+    }
+
+    public QueryDeadlineStats stats() {
+        return new QueryDeadlineStats(defaultTimeoutMillis, maxTimeoutMillis, inFlight.size(),
+                timedOut.get(), expiredBeforeQuery.get(), cancelled.get());
+    }
+
+    /**
+     * 마감 때문에 끊긴 쿼리인지. JDBC timeout 과 cancel 은 Hibernate 에서 QueryTimeoutException 으로 바뀌고,
+     * 계층에 따라 jakarta, hibernate, spring 중 하나로 감싸져 올라온다
+     */
+    public static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException
+                    || cause instanceof jakarta.persistence.QueryTimeoutException
+                    || cause instanceof org.hibernate.QueryTimeoutException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
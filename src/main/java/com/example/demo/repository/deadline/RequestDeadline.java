@@ -0,0 +1,75 @@
+package com.example.demo.repository.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나의 마감 시각. {@link QueryDeadlines#begin} 으로 만들고 요청 스레드에 묶는다.
+ * 마감이 지나거나 {@link #cancel()} 되면 watchdog 이 그 스레드에서 실행 중인 statement 를 취소한다.
+ * <p>
+ * 비동기 요청은 {@link QueryDeadlines#resume} 으로 작업 스레드에 다시 묶인다. 그때부터는 시간 제한 대신
+ * 비동기 타임아웃과 연결 끊김으로 부르는 cancel 로만 끝난다
+ */
+public class RequestDeadline {
+
+    private volatile Thread owner;
+    private volatile boolean bounded = true;
+    private final long deadlineNanos;
+    private final long timeoutMillis;
+    private volatile boolean cancelRequested;
+    private volatile boolean cancelled;
+
+    RequestDeadline(long timeoutMillis) {
+        this.owner = Thread.currentThread();
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * 시간 제한이 없으면 Long.MAX_VALUE
+     */
+    public long remainingMillis() {
+        if (cancelRequested) {
+            return 0;
+        }
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return cancelRequested || bounded && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * watchdog 이 실행 중인 statement 를 실제로 취소했는지
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 마감 전이라도 취소한다. 클라이언트 연결이 끊긴 것을 안 쪽({@link DeadlineCallableInterceptor} 의 onError, onTimeout)에서 부른다.
+     * 다음 watchdog 주기에 실행 중인 statement 가 취소되고, 이후 쿼리는 DB 에 보내지 않는다
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    Thread getOwner() {
+        return owner;
+    }
+
+    void continueOn(Thread thread) {
+        this.owner = thread;
+        this.bounded = false;
+    }
+
+    void markCancelled() {
+        cancelled = true;
+    }
+}
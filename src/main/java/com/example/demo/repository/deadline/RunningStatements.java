@@ -0,0 +1,95 @@
+package com.example.demo.repository.deadline;
+
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 스레드마다 지금 실행 중인 JDBC statement 를 기록한다. {@link RunningStatementsDataSource} 가 execute* 앞뒤로 채운다.
+ * <p>
+ * Statement.cancel 은 JDBC 명세상 다른 스레드에서 불러도 되는 메서드라서 watchdog 같은 다른 스레드가 취소할 수 있다.
+ * 취소와 실행 종료는 같은 락으로 묶여 있어서, 이미 끝난 statement 나 그 다음 statement 를 취소하지 않는다.
+ * <p>
+ * 스레드마다 execute* 에 쓴 시간과 커넥션을 얻는 데 기다린 시간도 더해 둔다. 요청 하나가 DB 에서 보낸 시간을 잴 때 앞뒤 값의 차이를 쓴다
+ */
+@Component
+public class RunningStatements {
+
+    private static final ThreadLocal<long[]> EXECUTED_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<long[]> ACQUIRE_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Map<Thread, Running> running = new ConcurrentHashMap<>();
+
+    Running begin(Statement statement) {
+        Running current = new Running(statement);
+        running.put(Thread.currentThread(), current);
+        return current;
+    }
+
+    void end(Running current) {
+        synchronized (current) {
+            current.done = true;
+        }
+        running.remove(Thread.currentThread(), current);
+        EXECUTED_NANOS.get()[0] += System.nanoTime() - current.startNanos;
+    }
+
+    /**
+     * 현재 스레드가 지금까지 statement 실행에 쓴 시간
+     */
+    public static long executedNanos() {
+        return EXECUTED_NANOS.get()[0];
+    }
+
+    /**
+     * 현재 스레드가 지금까지 커넥션을 얻는 데 쓴 시간. 풀이 꽉 차서 기다린 시간이 여기에 들어간다
+     */
+    public static long acquireNanos() {
+        return ACQUIRE_NANOS.get()[0];
+    }
+
+    static void acquired(long startNanos) {
+        ACQUIRE_NANOS.get()[0] += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * owner 스레드가 실행 중인 statement 가 있으면 취소한다
+     *
+     * @return 실제로 실행 중인 statement 에 cancel 을 보냈으면 true
+     */
+    public boolean cancel(Thread owner) {
+        Running current = running.get(owner);
+        if (current == null) {
+            return false;
+        }
+        synchronized (current) {
+            if (current.done) {
+                return false;
+            }
+            try {
+                current.statement.cancel();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return running.size();
+    }
+
+    static final class Running {
+
+        private final Statement statement;
+        private final long startNanos = System.nanoTime();
+        private boolean done;
+
+        private Running(Statement statement) {
+            this.statement = statement;
+        }
+    }
+}
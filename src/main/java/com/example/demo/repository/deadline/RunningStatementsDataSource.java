@@ -0,0 +1,86 @@
+package com.example.demo.repository.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * statement 의 execute* 가 실행되는 동안 {@link RunningStatements} 에 올려두는 DataSource.
+ * 커넥션을 얻는 데 걸린 시간도 {@link RunningStatements#acquireNanos()} 에 더한다
+ */
+class RunningStatementsDataSource extends DelegatingDataSource {
+
+    private final RunningStatements runningStatements;
+
+    RunningStatementsDataSource(DataSource target, RunningStatements runningStatements) {
+        super(target);
+        this.runningStatements = runningStatements;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return wrap(super.getConnection());
+        } finally {
+            RunningStatements.acquired(start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return wrap(super.getConnection(username, password));
+        } finally {
+            RunningStatements.acquired(start);
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = call(connection, method, args);
+                    if (result instanceof CallableStatement statement) {
+                        return track(statement, CallableStatement.class);
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return track(statement, PreparedStatement.class);
+                    }
+                    if (result instanceof Statement statement) {
+                        return track(statement, Statement.class);
+                    }
+                    return result;
+                });
+    }
+
+    private Object track(Statement statement, Class<? extends Statement> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return call(statement, method, args);
+            }
+            RunningStatements.Running running = runningStatements.begin(statement);
+            try {
+                return call(statement, method, args);
+            } finally {
+                runningStatements.end(running);
+            }
+        });
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.repository.deadline;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * "dataSource" 빈을 {@link RunningStatementsDataSource} 로 감싼다.
+ * 다른 DataSource 래퍼(slow-query 등)보다 먼저 적용되어 실제 커넥션에 가장 가깝게 놓인다
+ */
+@Component
+public class RunningStatementsDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<RunningStatements> runningStatements;
+
+    public RunningStatementsDataSourcePostProcessor(ObjectProvider<RunningStatements> runningStatements) {
+        this.runningStatements = runningStatements;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return new RunningStatementsDataSource(dataSource, runningStatements.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
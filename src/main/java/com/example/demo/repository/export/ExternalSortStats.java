@@ -0,0 +1,18 @@
+package com.example.demo.repository.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ExternalSortStats {
+
+    private long rows;
+    // merge 직전에 남은 파일 run 수. 0 이면 메모리에서만 정렬했다
+    private int runs;
+    private int mergePasses;
+    // 중간 merge 로 다시 쓴 것까지 포함해 임시 파일에 쓴 총량
+    private long spilledBytes;
+    private long tempBytes;
+
+}
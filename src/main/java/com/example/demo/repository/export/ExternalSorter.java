@@ -0,0 +1,315 @@
+package com.example.demo.repository.export;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * 메모리에 다 올릴 수 없는 행을 정렬한다.
+ * 입력을 runRows 개씩 메모리에서 정렬해 임시 파일(run)로 내리고, 마지막 run 은 메모리에 둔 채로 k-way merge 해서 내보낸다.
+ * run 이 fanIn 개보다 많으면 fanIn 개씩 먼저 합쳐서 run 수를 줄인다.
+ * <p>
+ * 메모리는 대략 runRows 행 + fanIn * bufferBytes, 임시 파일은 같은 시점에 maxTempBytes 까지 쓴다.
+ * 입력이 runRows 개보다 적으면 파일을 만들지 않는다.
+ * 정렬 중의 상태는 {@link SortedRuns} 에만 있으므로 여러 스레드가 한 sorter 로 각자 정렬해도 된다. SortedRuns 는 스레드 안전하지 않다
+ */
+public class ExternalSorter<T> {
+
+    private final Comparator<? super T> order;
+    private final RowCodec<T> codec;
+    private final int runRows;
+    private final int fanIn;
+    private final int bufferBytes;
+    private final Path tempDir;
+    private final long maxTempBytes;
+
+    /**
+     * @param tempDir null 이면 java.io.tmpdir
+     */
+    public ExternalSorter(Comparator<? super T> order, RowCodec<T> codec,
+                          int runRows, int fanIn, int bufferBytes, Path tempDir, long maxTempBytes) {
+        if (runRows <= 0) {
+            throw new IllegalArgumentException("runRows must be positive: " + runRows);
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fanIn must be at least 2: " + fanIn);
+        }
+        if (bufferBytes <= 0) {
+            throw new IllegalArgumentException("bufferBytes must be positive: " + bufferBytes);
+        }
+        this.order = order;
+        this.codec = codec;
+        this.runRows = runRows;
+        this.fanIn = fanIn;
+        this.bufferBytes = bufferBytes;
+        this.tempDir = tempDir;
+        this.maxTempBytes = maxTempBytes;
+    }
+
+    /**
+     * 입력을 끝까지 읽어 정렬된 run 들로 만든다. 입력(DB 커서 등)은 이 메서드가 끝나면 닫아도 된다.
+     * 돌려준 {@link SortedRuns} 는 다 쓰고 닫아야 임시 파일이 지워진다
+     */
+    public SortedRuns sort(Iterator<? extends T> input) throws IOException {
+        SortedRuns runs = new SortedRuns();
+        try {
+            List<T> buffer = new ArrayList<>(Math.min(runRows, 1024));
+            while (input.hasNext()) {
+                buffer.add(input.next());
+                runs.rows++;
+                if (buffer.size() == runRows) {
+                    buffer.sort(order);
+                    runs.spill(buffer.iterator(), buffer.size());
+                    buffer.clear();
+                }
+            }
+            buffer.sort(order);
+            runs.memoryRun = buffer;
+            runs.reduce();
+            return runs;
+        } catch (IOException | RuntimeException e) {
+            runs.close();
+            throw e;
+        }
+    }
+
+    public class SortedRuns implements Closeable {
+
+        private final List<Run> files = new ArrayList<>();
+        private List<T> memoryRun = List.of();
+        private long rows;
+        private long tempBytes;
+        private long spilledBytes;
+        private int mergePasses;
+
+        /**
+         * 모든 행을 order 순서로 sink 에 넘긴다
+         */
+        public void writeTo(RowSink<? super T> sink) throws IOException {
+            List<Iterator<T>> sources = new ArrayList<>(files.size() + 1);
+            List<RunReader> readers = new ArrayList<>(files.size());
+            try {
+                for (Run run : files) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    sources.add(reader);
+                }
+                sources.add(memoryRun.iterator());
+                merge(sources, sink);
+            } finally {
+                for (RunReader reader : readers) {
+                    reader.close();
+                }
+            }
+        }
+
+        public ExternalSortStats stats() {
+            return new ExternalSortStats(rows, files.size(), mergePasses, spilledBytes, tempBytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (Run run : files) {
+                try {
+                    Files.deleteIfExists(run.path);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            files.clear();
+            tempBytes = 0;
+            memoryRun = List.of();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * 마지막 merge 때 파일 run 과 메모리 run 을 합쳐 fanIn 개 이하가 되도록 앞에서부터 fanIn 개씩 합친다
+         */
+        private void reduce() throws IOException {
+            while (files.size() + 1 > fanIn) {
+                List<Run> group = new ArrayList<>(files.subList(0, fanIn));
+                List<RunReader> readers = new ArrayList<>(group.size());
+                long groupRows = 0;
+                try {
+                    for (Run run : group) {
+                        readers.add(new RunReader(run));
+                        groupRows += run.rows;
+                    }
+                    List<Iterator<T>> sources = new ArrayList<>(readers);
+                    Run merged = createRun(groupRows, out -> merge(sources, row -> codec.write(out, row)));
+                    files.add(merged);
+                } finally {
+                    for (RunReader reader : readers) {
+                        reader.close();
+                    }
+                }
+                for (Run run : group) {
+                    Files.delete(run.path);
+                    tempBytes -= run.bytes;
+                }
+                files.subList(0, fanIn).clear();
+                mergePasses++;
+            }
+        }
+
+        private void spill(Iterator<T> sorted, int count) throws IOException {
+            files.add(createRun(count, out -> {
+                while (sorted.hasNext()) {
+                    codec.write(out, sorted.next());
+                }
+            }));
+        }
+
+        private Run createRun(long count, RowSink<DataOutputStream> body) throws IOException {
+            Path path = tempDir == null
+                    ? Files.createTempFile("member-export-", ".run")
+                    : Files.createTempFile(tempDir, "member-export-", ".run");
+            long before = tempBytes;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new LimitedOutputStream(Files.newOutputStream(path), this), bufferBytes))) {
+                out.writeLong(count);
+                body.accept(out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(path);
+                tempBytes = before;
+                throw e;
+            }
+            return new Run(path, count, tempBytes - before);
+        }
+
+        private void merge(List<Iterator<T>> sources, RowSink<? super T> sink) throws IOException {
+            PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                    (a, b) -> order.compare(a.row, b.row));
+            try {
+                for (Iterator<T> source : sources) {
+                    if (source.hasNext()) {
+                        heads.add(new Head(source.next(), source));
+                    }
+                }
+                while (!heads.isEmpty()) {
+                    Head head = heads.poll();
+                    sink.accept(head.row);
+                    if (head.source.hasNext()) {
+                        head.row = head.source.next();
+                        heads.add(head);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void written(int bytes) throws IOException {
+            tempBytes += bytes;
+            spilledBytes += bytes;
+            if (tempBytes > maxTempBytes) {
+                throw new IOException("export temp files exceeded " + maxTempBytes + " bytes");
+            }
+        }
+    }
+
+    private class Head {
+
+        private T row;
+        private final Iterator<T> source;
+
+        private Head(T row, Iterator<T> source) {
+            this.row = row;
+            this.source = source;
+        }
+    }
+
+    private static class Run {
+
+        private final Path path;
+        private final long rows;
+        private final long bytes;
+
+        private Run(Path path, long rows, long bytes) {
+            this.path = path;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * run 파일을 순서대로 읽는다. 읽기 실패는 merge 도중이라 unchecked 로 감싼다
+     */
+    private class RunReader implements Iterator<T>, Closeable {
+
+        private final DataInputStream in;
+        private long remaining;
+
+        private RunReader(Run run) throws IOException {
+            InputStream file = Files.newInputStream(run.path);
+            this.in = new DataInputStream(new BufferedInputStream(file, bufferBytes));
+            this.remaining = in.readLong();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return codec.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * 쓰는 만큼 SortedRuns 의 임시 파일 용량에 더하고 한도를 넘으면 실패한다
+     */
+    private static class LimitedOutputStream extends FilterOutputStream {
+
+        private final ExternalSorter<?>.SortedRuns runs;
+
+        private LimitedOutputStream(OutputStream out, ExternalSorter<?>.SortedRuns runs) {
+            super(out);
+            this.runs = runs;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            runs.written(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            runs.written(len);
+            out.write(b, off, len);
+        }
+    }
+}
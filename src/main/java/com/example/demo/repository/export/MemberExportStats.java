@@ -0,0 +1,18 @@
+package com.example.demo.repository.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MemberExportStats {
+
+    private int maxConcurrent;
+    private int running;
+    private long exports;
+    // 자리가 없어서 503 으로 돌려보낸 요청
+    private long rejected;
+    private long rows;
+    private long spilledBytes;
+
+}
@@ -0,0 +1,153 @@
+package com.example.demo.repository.export;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+import static com.example.demo.repository.MemberSearchExpressions.*;
+
+/**
+ * 검색 결과 전체를 나이 내림차순, 이름 오름차순(null 은 마지막) 으로 정렬해 NDJSON 으로 내보낸다.
+ * DB 에는 order by 없이 커서로 읽고, 정렬은 {@link ExternalSorter} 로 메모리 한도 안에서 한다.
+ * 읽기 트랜잭션은 run 을 다 만들면 끝나고, merge 해서 내보내는 동안에는 커넥션을 잡지 않는다.
+ * <p>
+ * 동시에 max-concurrent 개까지만 받아서 전체 메모리와 임시 파일도 그만큼으로 묶는다
+ */
+@Component
+@ConditionalOnProperty(name = "member.export.enabled", havingValue = "true")
+public class MemberExporter {
+
+    /**
+     * BasicTest.sort 의 orderBy(member.age.desc(), member.username.asc().nullsLast()) 와 같은 순서. 같으면 id 순
+     */
+    public static final Comparator<MemberTeamDto> ORDER = Comparator
+            .comparingInt(MemberTeamDto::getAge).reversed()
+            .thenComparing(MemberTeamDto::getUsername, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(MemberTeamDto::getMemberId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readTransaction;
+    private final ObjectMapper objectMapper;
+    private final ExternalSorter<MemberTeamDto> sorter;
+    private final int fetchSize;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+
+    private final AtomicLong exports = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong spilledBytes = new AtomicLong();
+
+    public MemberExporter(EntityManager em,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          @Value("${member.export.run-rows:100000}") int runRows,
+                          @Value("${member.export.fan-in:64}") int fanIn,
+                          @Value("${member.export.buffer-bytes:65536}") int bufferBytes,
+                          @Value("${member.export.temp-dir:}") String tempDir,
+                          @Value("${member.export.max-temp-bytes:10737418240}") long maxTempBytes,
+                          @Value("${member.export.fetch-size:1000}") int fetchSize,
+                          @Value("${member.export.max-concurrent:2}") int maxConcurrent) throws IOException {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        Path dir = null;
+        if (StringUtils.hasText(tempDir)) {
+            dir = Files.createDirectories(Path.of(tempDir));
+        }
+        this.sorter = new ExternalSorter<>(ORDER, new MemberTeamDtoCodec(), runRows, fanIn, bufferBytes, dir, maxTempBytes);
+        this.fetchSize = fetchSize;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * 자리가 없으면 false. true 를 받았으면 {@link #export} 를 한 번 호출해야 자리가 반납된다
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 한 줄에 회원 하나씩 out 에 쓴다. out 은 닫지 않는다
+     */
+    public ExternalSortStats export(MemberSearchCondition condition, OutputStream out) throws IOException {
+        try (ExternalSorter<MemberTeamDto>.SortedRuns runs = readSorted(condition);
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            runs.writeTo(writer::write);
+            writer.flush();
+
+            ExternalSortStats stats = runs.stats();
+            if (stats.getRows() > 0) {
+                out.write('\n');
+            }
+            exports.incrementAndGet();
+            rows.addAndGet(stats.getRows());
+            spilledBytes.addAndGet(stats.getSpilledBytes());
+            return stats;
+        } finally {
+            permits.release();
+        }
+    }
+
+    public MemberExportStats stats() {
+        return new MemberExportStats(maxConcurrent, maxConcurrent - permits.availablePermits(),
+                exports.get(), rejected.get(), rows.get(), spilledBytes.get());
+    }
+
+    private ExternalSorter<MemberTeamDto>.SortedRuns readSorted(MemberSearchCondition condition) throws IOException {
+        try {
+            return readTransaction.execute(status -> {
+                try (Stream<MemberTeamDto> unsorted = queryFactory
+                        .select(MEMBER_TEAM_DTO)
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        )
+                        .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                        .stream()) {
+                    return sorter.sort(unsorted.iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
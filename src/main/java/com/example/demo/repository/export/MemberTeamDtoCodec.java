@@ -0,0 +1,79 @@
+package com.example.demo.repository.export;
+
+import com.example.demo.dto.MemberTeamDto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * null 여부를 flag 한 바이트에 모으고 id 와 나이는 가변 길이 정수로 쓴다. 보통 한 행이 이름 길이 + 10 바이트 안쪽이다
+ */
+public class MemberTeamDtoCodec implements RowCodec<MemberTeamDto> {
+
+    private static final int MEMBER_ID = 1;
+    private static final int USERNAME = 1 << 1;
+    private static final int TEAM_ID = 1 << 2;
+    private static final int TEAM_NAME = 1 << 3;
+
+    @Override
+    public void write(DataOutput out, MemberTeamDto row) throws IOException {
+        int flags = (row.getMemberId() != null ? MEMBER_ID : 0)
+                | (row.getUsername() != null ? USERNAME : 0)
+                | (row.getTeamId() != null ? TEAM_ID : 0)
+                | (row.getTeamName() != null ? TEAM_NAME : 0);
+        out.writeByte(flags);
+        if (row.getMemberId() != null) {
+            writeVarLong(out, zigZag(row.getMemberId()));
+        }
+        if (row.getUsername() != null) {
+            out.writeUTF(row.getUsername());
+        }
+        writeVarLong(out, zigZag(row.getAge()));
+        if (row.getTeamId() != null) {
+            writeVarLong(out, zigZag(row.getTeamId()));
+        }
+        if (row.getTeamName() != null) {
+            out.writeUTF(row.getTeamName());
+        }
+    }
+
+    @Override
+    public MemberTeamDto read(DataInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        Long memberId = (flags & MEMBER_ID) != 0 ? unZigZag(readVarLong(in)) : null;
+        String username = (flags & USERNAME) != 0 ? in.readUTF() : null;
+        int age = (int) unZigZag(readVarLong(in));
+        Long teamId = (flags & TEAM_ID) != 0 ? unZigZag(readVarLong(in)) : null;
+        String teamName = (flags & TEAM_NAME) != 0 ? in.readUTF() : null;
+        return new MemberTeamDto(memberId, username, age, teamId, teamName);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+}
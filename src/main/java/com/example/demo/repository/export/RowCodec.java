@@ -0,0 +1,15 @@
+package com.example.demo.repository.export;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * {@link ExternalSorter} 가 run 파일에 행을 쓰고 읽는 형식
+ */
+public interface RowCodec<T> {
+
+    void write(DataOutput out, T row) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
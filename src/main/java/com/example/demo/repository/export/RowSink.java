@@ -0,0 +1,9 @@
+package com.example.demo.repository.export;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface RowSink<T> {
+
+    void accept(T row) throws IOException;
+}
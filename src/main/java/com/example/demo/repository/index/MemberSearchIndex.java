@@ -0,0 +1,484 @@
+package com.example.demo.repository.index;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.UsernameMatch;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.changefeed.ChangeBatch;
+import com.example.demo.repository.changefeed.ChangeEvent;
+import com.example.demo.repository.changefeed.ChangeFeedSubscription;
+import com.example.demo.repository.changefeed.MemberChangeFeed;
+import com.example.demo.repository.changefeed.MemberChanged;
+import com.example.demo.repository.changefeed.TeamChanged;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+
+/**
+ * {@link MemberSearchCondition} 을 SQL 없이 평가하는 메모리 인덱스.
+ * 회원마다 slot 번호를 부여하고 username, teamId, age 별 BitSet posting 을 교집합해서 결과를 만든다.
+ * 삭제된 회원의 slot 은 다음 회원이 다시 쓰므로 slot 순서는 id 순서와 다를 수 있다. 결과는 memberId 순서로 반환된다.
+ * <p>
+ * 시작할 때 전체를 읽고, 이후에는 sync-interval-ms 마다 {@link MemberChangeFeed} 에서 바뀐 회원/팀 id 를 받아 그 행만 다시 읽는다.
+ * 벌크 update/delete 도 피드에 남으므로 같이 맞춰진다. 피드에 gap 이 생기면 전체를 다시 읽는다.
+ * <p>
+ * 처음 적재가 끝나기 전({@link #isReady()})이나 피드 끝까지 따라잡지 못했을 때({@link #isCaughtUp()})는
+ * 커밋됐지만 색인에 없는 변경이 있을 수 있으므로 부르는 쪽이 DB 로 조회해야 한다
+ */
+@Component
+@ConditionalOnProperty(name = "member.search-index.enabled", havingValue = "true")
+public class MemberSearchIndex {
+
+    private static final long NULL_TEAM = -1L;
+
+    private final JPAQueryFactory queryFactory;
+    private final MemberChangeFeed changeFeed;
+    private final ChangeFeedSubscription subscription;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[16];
+    private String[] usernames = new String[16];
+    private int[] ages = new int[16];
+    private long[] teamIds = new long[16];
+    private int nextSlot;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<String, BitSet> usernamePostings = new HashMap<>();
+    private final Map<Long, BitSet> teamPostings = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> agePostings = new TreeMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+    private final Map<String, Set<Long>> teamIdsByName = new HashMap<>();
+
+    private volatile boolean ready;
+    // 색인에 반영까지 끝난 피드 위치. subscription offset 은 반영 전에 앞으로 가므로 따로 둔다
+    private volatile long appliedOffset;
+
+    public MemberSearchIndex(JPAQueryFactory queryFactory, MemberChangeFeed changeFeed) {
+        this.queryFactory = queryFactory;
+        this.changeFeed = changeFeed;
+        this.subscription = changeFeed.subscribe(MemberSearchIndex.class.getName());
+    }
+
+    /**
+     * 피드 위치를 먼저 끝으로 옮긴 뒤 전체를 읽는다. 읽는 동안 커밋된 변경은 다음 sync 에서 다시 읽으므로
+     * 읽은 값으로 색인을 통째로 바꿔도 빠지지 않는다
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        while (true) {
+            ChangeBatch batch = subscription.poll(1000);
+            subscription.commit(batch);
+            if (batch.isEmpty()) {
+                break;
+            }
+        }
+        long offset = subscription.getOffset();
+
+        List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .fetch();
+
+        List<Tuple> members = queryFactory
+                .select(member.id, member.username, member.age, team.id)
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.id.asc())
+                .fetch();
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Tuple row : teams) {
+                putTeam(row.get(team.id), row.get(team.name));
+            }
+            for (Tuple row : members) {
+                putMember(row.get(member.id), row.get(member.username), row.get(member.age), row.get(team.id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        appliedOffset = offset;
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isCaughtUp() {
+        return appliedOffset >= changeFeed.latestOffset();
+    }
+
+    @Scheduled(fixedDelayString = "${member.search-index.sync-interval-ms:100}")
+    public void catchUp() {
+        if (ready) {
+            sync();
+        }
+    }
+
+    /**
+     * 피드에서 바뀐 회원/팀 id 를 모아 그 행을 다시 읽는다. 읽어서 없는 id 는 삭제된 것이다
+     */
+    synchronized void sync() {
+        Set<Long> changedMembers = new LinkedHashSet<>();
+        Set<Long> changedTeams = new LinkedHashSet<>();
+        while (true) {
+            ChangeBatch batch = subscription.poll(1000);
+            if (batch.isGap()) {
+                rebuild();
+                return;
+            }
+            if (batch.isEmpty()) {
+                subscription.commit(batch);
+                break;
+            }
+            for (ChangeEvent event : batch.getEvents()) {
+                if (event instanceof MemberChanged memberChanged) {
+                    changedMembers.add(memberChanged.getMemberId());
+                } else if (event instanceof TeamChanged teamChanged) {
+                    changedTeams.add(teamChanged.getTeamId());
+                }
+            }
+            subscription.commit(batch);
+        }
+        long offset = subscription.getOffset();
+        if (changedMembers.isEmpty() && changedTeams.isEmpty()) {
+            appliedOffset = offset;
+            return;
+        }
+
+        List<Long> teamIds = new ArrayList<>(changedTeams);
+        Map<Long, String> teamRows = new HashMap<>();
+        for (List<Long> chunk : chunks(teamIds)) {
+            for (Tuple row : queryFactory
+                    .select(team.id, team.name)
+                    .from(team)
+                    .where(team.id.in(chunk))
+                    .fetch()) {
+                teamRows.put(row.get(team.id), row.get(team.name));
+            }
+        }
+
+        List<Long> memberIds = new ArrayList<>(changedMembers);
+        Map<Long, Tuple> memberRows = new HashMap<>();
+        for (List<Long> chunk : chunks(memberIds)) {
+            for (Tuple row : queryFactory
+                    .select(member.id, member.username, member.age, team.id)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(member.id.in(chunk))
+                    .fetch()) {
+                memberRows.put(row.get(member.id), row);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : teamIds) {
+                removeTeamName(id);
+                if (teamRows.containsKey(id)) {
+                    putTeam(id, teamRows.get(id));
+                }
+            }
+            for (Long id : memberIds) {
+                Tuple row = memberRows.get(id);
+                if (row == null) {
+                    removeMemberSlot(id);
+                } else {
+                    upsertMemberSlot(id, row.get(member.username), row.get(member.age), row.get(team.id));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        appliedOffset = offset;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MemberJpaRepository.IN_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + MemberJpaRepository.IN_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * 지금까지 쓴 slot 수. 비어 있는 slot 은 재사용되므로 동시에 살아 있던 회원 수를 넘지 않는다
+     */
+    int slotCount() {
+        lock.readLock().lock();
+        try {
+            return nextSlot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+
+            if (StringUtils.hasText(condition.getUsername())) {
+                result.and(usernameBits(condition.getUsername(), condition.getUsernameMatch()));
+            }
+
+            if (StringUtils.hasText(condition.getTeamName())) {
+                BitSet teamBits = new BitSet();
+                for (Long teamId : teamIdsByName.getOrDefault(condition.getTeamName(), Set.of())) {
+                    BitSet postings = teamPostings.get(teamId);
+                    if (postings != null) {
+                        teamBits.or(postings);
+                    }
+                }
+                result.and(teamBits);
+            }
+
+            if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+                result.and(ageRange(condition.getAgeGoe(), condition.getAgeLoe()));
+            }
+
+            long[] matchedIds = new long[result.cardinality()];
+            int count = 0;
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                matchedIds[count++] = ids[slot];
+            }
+            Arrays.sort(matchedIds);
+
+            List<MemberTeamDto> results = new ArrayList<>(matchedIds.length);
+            for (long id : matchedIds) {
+                results.add(toDto(slotById.get(id)));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void upsertMember(Long id, String username, int age, Long teamId) {
+        lock.writeLock().lock();
+        try {
+            upsertMemberSlot(id, username, age, teamId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeMember(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeMemberSlot(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void upsertTeam(Long id, String name) {
+        lock.writeLock().lock();
+        try {
+            removeTeamName(id);
+            putTeam(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeTeam(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeTeamName(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * EXACT 가 아니면 username 키를 모두 비교한다. 키 수는 서로 다른 username 수라서 회원 수보다 작다
+     */
+    private BitSet usernameBits(String username, UsernameMatch match) {
+        if (match == null || match == UsernameMatch.EXACT) {
+            return usernamePostings.getOrDefault(username, new BitSet());
+        }
+        BitSet bits = new BitSet();
+        usernamePostings.forEach((candidate, postings) -> {
+            if (match.matches(candidate, username)) {
+                bits.or(postings);
+            }
+        });
+        return bits;
+    }
+
+    private BitSet ageRange(Integer ageGoe, Integer ageLoe) {
+        BitSet bits = new BitSet();
+        int from = ageGoe == null ? Integer.MIN_VALUE : ageGoe;
+        int to = ageLoe == null ? Integer.MAX_VALUE : ageLoe;
+        if (from > to) {
+            return bits;
+        }
+        for (BitSet postings : agePostings.subMap(from, true, to, true).values()) {
+            bits.or(postings);
+        }
+        return bits;
+    }
+
+    private MemberTeamDto toDto(int slot) {
+        Long teamId = teamIds[slot] == NULL_TEAM ? null : teamIds[slot];
+        return new MemberTeamDto(ids[slot], usernames[slot], ages[slot], teamId,
+                teamId == null ? null : teamNames.get(teamId));
+    }
+
+    private void upsertMemberSlot(Long id, String username, int age, Long teamId) {
+        Integer slot = slotById.get(id);
+        if (slot == null) {
+            putMember(id, username, age, teamId);
+        } else {
+            // 기존 slot 을 재사용해서 결과 순서를 유지한다
+            clearPostings(slot);
+            writeSlot(slot, id, username, age, teamId);
+        }
+    }
+
+    private void putMember(Long id, String username, int age, Long teamId) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = nextSlot++;
+            ensureCapacity(slot + 1);
+        }
+        slotById.put(id, slot);
+        writeSlot(slot, id, username, age, teamId);
+    }
+
+    private void writeSlot(int slot, Long id, String username, int age, Long teamId) {
+        ids[slot] = id;
+        usernames[slot] = username;
+        ages[slot] = age;
+        teamIds[slot] = teamId == null ? NULL_TEAM : teamId;
+
+        live.set(slot);
+        if (username != null) {
+            usernamePostings.computeIfAbsent(username, key -> new BitSet()).set(slot);
+        }
+        if (teamId != null) {
+            teamPostings.computeIfAbsent(teamId, key -> new BitSet()).set(slot);
+        }
+        agePostings.computeIfAbsent(age, key -> new BitSet()).set(slot);
+    }
+
+    private void removeMemberSlot(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot != null) {
+            clearPostings(slot);
+            teamIds[slot] = NULL_TEAM;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    private void clearPostings(int slot) {
+        live.clear(slot);
+        if (usernames[slot] != null) {
+            clearPosting(usernamePostings, usernames[slot], slot);
+        }
+        if (teamIds[slot] != NULL_TEAM) {
+            clearPosting(teamPostings, teamIds[slot], slot);
+        }
+        clearPosting(agePostings, ages[slot], slot);
+        usernames[slot] = null;
+    }
+
+    private void putTeam(Long id, String name) {
+        teamNames.put(id, name);
+        if (name != null) {
+            teamIdsByName.computeIfAbsent(name, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeTeamName(Long id) {
+        String previous = teamNames.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Set<Long> sameName = teamIdsByName.get(previous);
+        if (sameName != null) {
+            sameName.remove(id);
+            if (sameName.isEmpty()) {
+                teamIdsByName.remove(previous);
+            }
+        }
+    }
+
+    private static <K> void clearPosting(Map<K, BitSet> postings, K key, int slot) {
+        BitSet bits = postings.get(key);
+        if (bits == null) {
+            return;
+        }
+        bits.clear(slot);
+        if (bits.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        usernames = Arrays.copyOf(usernames, newLength);
+        ages = Arrays.copyOf(ages, newLength);
+        teamIds = Arrays.copyOf(teamIds, newLength);
+    }
+
+    private void clear() {
+        nextSlot = 0;
+        freeCount = 0;
+        live.clear();
+        slotById.clear();
+        usernamePostings.clear();
+        teamPostings.clear();
+        agePostings.clear();
+        teamNames.clear();
+        teamIdsByName.clear();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.repository.limit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ConcurrencyLimitStats {
+
+    private int limit;
+    private int minLimit;
+    private int maxLimit;
+    private int inFlight;
+    private long accepted;
+    private long rejected;
+    private double longRttMs;
+    private double lastRttMs;
+
+}
@@ -0,0 +1,96 @@
+package com.example.demo.repository.limit;
+
+/**
+ * 응답 시간 기울기로 동시 처리 한도를 조절하는 limiter (Netflix concurrency-limits 의 Gradient2 방식).
+ * <p>
+ * 샘플마다 장기 평균 RTT(longRtt)와 방금 RTT 를 비교한다.
+ * <pre>
+ *   gradient = clamp(tolerance * longRtt / rtt, 0.5, 1.0)
+ *   newLimit = limit * gradient + sqrt(limit)
+ *   limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ * DB 가 느려져서 RTT 가 장기 평균보다 커지면 한도가 줄고, 그대로면 sqrt(limit) 만큼 늘어난다.
+ * 실제로 한도의 절반도 쓰지 않는 동안에는 늘리지 않는다. 그렇지 않으면 한가할 때 한도가 max 까지 부풀어서 막상 느려졌을 때 막지 못한다.
+ * RTT 가 장기 평균의 절반 아래로 떨어지면 장기 평균을 빠르게 끌어내려서, 부하가 빠진 뒤 한도가 다시 늘어날 수 있게 한다.
+ * <p>
+ * 스레드 안전하다
+ */
+public class GradientConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longRttAlpha;
+
+    private double limit;
+    private double longRttNanos;
+    private long lastRttNanos;
+    private int inFlight;
+
+    private long accepted;
+    private long rejected;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, int longWindow) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("1 <= minLimit <= initialLimit <= maxLimit 이어야 합니다");
+        }
+        if (tolerance < 1.0 || smoothing <= 0 || smoothing > 1 || longWindow < 1) {
+            throw new IllegalArgumentException("tolerance >= 1, 0 < smoothing <= 1, longWindow >= 1 이어야 합니다");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longRttAlpha = 2.0 / (longWindow + 1);
+        this.limit = initialLimit;
+    }
+
+    /**
+     * 한도 안이면 자리를 잡고 true. true 를 받았으면 끝날 때 반드시 {@link #release} 해야 한다
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        accepted++;
+        return true;
+    }
+
+    public synchronized void release(long rttNanos) {
+        int inFlightBefore = inFlight;
+        inFlight--;
+        if (rttNanos <= 0) {
+            return;
+        }
+        lastRttNanos = rttNanos;
+
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - longRttAlpha) + rttNanos * longRttAlpha;
+        }
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (newLimit > limit && inFlightBefore < limit / 2) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized ConcurrencyLimitStats stats() {
+        return new ConcurrencyLimitStats((int) limit, minLimit, maxLimit, inFlight, accepted, rejected,
+                longRttNanos / 1_000_000.0, lastRttNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.demo.repository.ngram;
+
+import com.example.demo.dto.UsernameMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 문자열의 부분 일치 검색용 트라이그램 역색인.
+ * 값을 소문자로 정규화한 뒤 연속한 세 글자마다 slot 번호 posting 을 둔다.
+ * <p>
+ * 값이 바뀌거나 지워져도 이전 posting 은 바로 지우지 않는다. 자주 나오는 트라이그램은 posting 이 회원 수만큼 길어서
+ * 찾아 지우는 비용이 크기 때문이다. 대신 조회할 때 slot 의 현재 값으로 다시 확인하고,
+ * 낡은 posting 이 살아 있는 posting 보다 많아지면 메모리에 있는 값으로 다시 만든다.
+ * <p>
+ * 스레드 안전하지 않다. 호출하는 쪽에서 잠근다
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private long[] ids = new long[16];
+    private String[] values = new String[16];
+    private int nextSlot;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private long livePostings;
+    private long stalePostings;
+
+    public int size() {
+        return slotById.size();
+    }
+
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    public long postingCount() {
+        return livePostings + stalePostings;
+    }
+
+    /**
+     * null 은 어떤 fragment 와도 맞지 않으므로 지우는 것과 같다
+     */
+    public void put(long id, String value) {
+        if (value == null) {
+            remove(id);
+            return;
+        }
+        Integer slot = slotById.get(id);
+        if (slot != null) {
+            if (value.equals(values[slot])) {
+                return;
+            }
+            retire(slot);
+        } else {
+            slot = nextSlot++;
+            ensureCapacity(slot + 1);
+            slotById.put(id, slot);
+            ids[slot] = id;
+        }
+        values[slot] = value;
+        livePostings += index(slot, value);
+        compactIfNeeded();
+    }
+
+    public void remove(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        retire(slot);
+        values[slot] = null;
+        compactIfNeeded();
+    }
+
+    public void clear() {
+        nextSlot = 0;
+        slotById.clear();
+        postings.clear();
+        livePostings = 0;
+        stalePostings = 0;
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * fragment 를 포함하는 id 를 id 순서로 돌려준다.
+     * fragment 가 트라이그램보다 짧거나 후보가 limit 개를 넘으면 색인으로 좁힐 수 없다는 뜻으로 null 을 돌려준다
+     *
+     * @param match CONTAINS 또는 CONTAINS_IGNORE_CASE. 후보는 이 규칙으로 다시 확인한다
+     */
+    public List<Long> search(String fragment, UsernameMatch match, int limit) {
+        String normalized = UsernameMatch.normalize(fragment);
+        if (normalized.length() < GRAM) {
+            return null;
+        }
+
+        // fragment 의 트라이그램 중 posting 이 가장 짧은 것만 훑고 나머지는 값 비교로 거른다
+        Postings shortest = null;
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            Postings candidate = postings.get(key(normalized, i));
+            if (candidate == null) {
+                return List.of();
+            }
+            if (shortest == null || candidate.size < shortest.size) {
+                shortest = candidate;
+            }
+        }
+
+        List<Long> results = new ArrayList<>();
+        BitSet seen = new BitSet();
+        for (int i = 0; i < shortest.size; i++) {
+            int slot = shortest.slots[i];
+            if (seen.get(slot)) {
+                continue;
+            }
+            seen.set(slot);
+            if (match.matches(values[slot], fragment)) {
+                if (results.size() == limit) {
+                    return null;
+                }
+                results.add(ids[slot]);
+            }
+        }
+        results.sort(null);
+        return results;
+    }
+
+    /**
+     * 색인 없이 전부 비교한다. search 와 결과를 비교하는 용도
+     */
+    public List<Long> scan(String fragment, UsernameMatch match) {
+        List<Long> results = new ArrayList<>();
+        for (int slot = 0; slot < nextSlot; slot++) {
+            if (match.matches(values[slot], fragment)) {
+                results.add(ids[slot]);
+            }
+        }
+        results.sort(null);
+        return results;
+    }
+
+    private int index(int slot, String value) {
+        String normalized = UsernameMatch.normalize(value);
+        int added = 0;
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            postings.computeIfAbsent(key(normalized, i), key -> new Postings()).add(slot);
+            added++;
+        }
+        return added;
+    }
+
+    private void retire(int slot) {
+        String previous = values[slot];
+        if (previous != null) {
+            int count = Math.max(0, UsernameMatch.normalize(previous).length() - GRAM + 1);
+            livePostings -= count;
+            stalePostings += count;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (stalePostings > 1024 && stalePostings > livePostings) {
+            compact();
+        }
+    }
+
+    /**
+     * 살아 있는 값만 모아 slot 을 앞에서부터 다시 채우고 posting 을 새로 만든다
+     */
+    void compact() {
+        long[] oldIds = ids;
+        String[] oldValues = values;
+        int oldNextSlot = nextSlot;
+
+        ids = new long[Math.max(16, slotById.size())];
+        values = new String[ids.length];
+        nextSlot = 0;
+        slotById.clear();
+        postings.clear();
+        livePostings = 0;
+        stalePostings = 0;
+
+        for (int slot = 0; slot < oldNextSlot; slot++) {
+            if (oldValues[slot] != null) {
+                put(oldIds[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        values = Arrays.copyOf(values, newLength);
+    }
+
+    /**
+     * 세 글자를 16비트씩 long 하나에 담는다
+     */
+    private static long key(String normalized, int from) {
+        return ((long) normalized.charAt(from) << 32)
+                | ((long) normalized.charAt(from + 1) << 16)
+                | normalized.charAt(from + 2);
+    }
+
+    private static class Postings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.demo.repository.ngram;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.UsernameMatch;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.changefeed.ChangeBatch;
+import com.example.demo.repository.changefeed.ChangeEvent;
+import com.example.demo.repository.changefeed.ChangeFeedSubscription;
+import com.example.demo.repository.changefeed.MemberChangeCapture;
+import com.example.demo.repository.changefeed.MemberChangeFeed;
+import com.example.demo.repository.changefeed.MemberChanged;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.example.demo.entity.QMember.member;
+
+/**
+ * Member.username 트라이그램 색인. usernameMatch 가 CONTAINS 계열인 검색의 후보 memberId 를 좁힌다.
+ * <p>
+ * 시작할 때 전체를 읽고, 이후에는 sync-interval-ms 마다 {@link MemberChangeFeed} 에서 바뀐 회원 id 를 받아 그 회원의 username 만 다시 읽는다.
+ * 벌크 update/delete 도 피드에 남으므로 같이 맞춰진다. 피드에 gap 이 생기면 전체를 다시 읽는다.
+ * 따라잡기는 스케줄러 스레드에서만 하고 조회 쪽에서는 DB 를 읽거나 락을 기다리지 않는다.
+ * <p>
+ * 색인은 후보를 좁히기만 하고 행을 빠뜨리면 안 된다. 그래서 다음 경우에는 색인을 쓰지 않고 LIKE 만으로 조회한다.
+ * <ul>
+ *     <li>색인이 피드 끝까지 따라잡지 못했을 때. 커밋됐지만 아직 색인에 없는 회원이 있을 수 있다</li>
+ *     <li>현재 트랜잭션에 커밋 전 Member 변경이 있을 때. 같은 트랜잭션의 쿼리에는 보이지만 피드에는 커밋 후에 들어온다</li>
+ *     <li>fragment 가 세 글자보다 짧거나 후보가 maxCandidates 개를 넘을 때</li>
+ * </ul>
+ * 색인을 쓸 때도 쿼리에는 원래의 LIKE 조건이 그대로 들어간다
+ */
+@Component
+@ConditionalOnProperty(name = "member.username-index.enabled", havingValue = "true")
+public class UsernameTrigramIndex {
+
+    // 후보가 없을 때 쓰는 조건. 빈 IN 목록은 DB 마다 다르게 처리된다
+    private static final BooleanExpression NO_MATCH = Expressions.booleanTemplate("1 = 0");
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final MemberChangeFeed changeFeed;
+    private final MemberChangeCapture changeCapture;
+    private final ChangeFeedSubscription subscription;
+    private final int maxCandidates;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+    // 색인에 반영까지 끝난 피드 위치. subscription offset 은 반영 전에 앞으로 가므로 따로 둔다
+    private volatile long appliedOffset;
+
+    private final AtomicLong indexedLookups = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong staleFallbacks = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public UsernameTrigramIndex(EntityManager em,
+                                JPAQueryFactory queryFactory,
+                                MemberChangeFeed changeFeed,
+                                MemberChangeCapture changeCapture,
+                                @Value("${member.username-index.max-candidates:" + MemberJpaRepository.IN_CHUNK_SIZE + "}") int maxCandidates) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.changeFeed = changeFeed;
+        this.changeCapture = changeCapture;
+        this.subscription = changeFeed.subscribe(UsernameTrigramIndex.class.getName());
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * 피드 위치를 먼저 끝으로 옮긴 뒤 전체를 읽는다. 읽는 동안 커밋된 변경은 다음 sync 에서 다시 읽으므로 빠지지 않는다
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        while (true) {
+            ChangeBatch batch = subscription.poll(1000);
+            subscription.commit(batch);
+            if (batch.isEmpty()) {
+                break;
+            }
+        }
+        long offset = subscription.getOffset();
+
+        TrigramIndex rebuilt = new TrigramIndex();
+        for (Tuple row : queryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .orderBy(member.id.asc())
+                .fetch()) {
+            rebuilt.put(row.get(member.id), row.get(member.username));
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        appliedOffset = offset;
+        rebuilds.incrementAndGet();
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 색인으로 좁힐 수 있으면 member.id IN (후보) 조건을, 아니면 null 을 돌려준다.
+     * null 은 Querydsl where 에서 무시되므로 호출하는 쪽은 usernameEq 와 나란히 넣기만 하면 된다
+     */
+    public BooleanExpression memberIdCandidates(MemberSearchCondition condition) {
+        UsernameMatch match = condition.getUsernameMatch();
+        if (!ready || match == null || !match.isContains() || !StringUtils.hasText(condition.getUsername())) {
+            return null;
+        }
+
+        if (appliedOffset < changeFeed.latestOffset() || hasUncommittedMemberChanges()) {
+            staleFallbacks.incrementAndGet();
+            return null;
+        }
+
+        List<Long> candidates;
+        lock.readLock().lock();
+        try {
+            candidates = index.search(condition.getUsername(), match, maxCandidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (candidates == null) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        indexedLookups.incrementAndGet();
+        return candidates.isEmpty() ? NO_MATCH : member.id.in(candidates);
+    }
+
+    public UsernameTrigramIndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return new UsernameTrigramIndexStats(ready, index.size(), index.trigramCount(), index.postingCount(),
+                    maxCandidates, indexedLookups.get(), fallbacks.get(), staleFallbacks.get(), reloads.get(), rebuilds.get());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 현재 트랜잭션에서 flush 됐거나 아직 flush 전인 변경이 있는지. 트랜잭션 밖이면 볼 것이 없다
+     */
+    private boolean hasUncommittedMemberChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        return changeCapture.hasPendingMemberChanges(session) || session.isDirty();
+    }
+
+    @Scheduled(fixedDelayString = "${member.username-index.sync-interval-ms:100}")
+    public void catchUp() {
+        if (ready) {
+            sync();
+        }
+    }
+
+    /**
+     * 피드에서 바뀐 회원 id 를 모아 username 을 다시 읽는다. 읽어서 없는 id 는 삭제된 것이다
+     */
+    synchronized void sync() {
+        Set<Long> changed = new LinkedHashSet<>();
+        while (true) {
+            ChangeBatch batch = subscription.poll(1000);
+            if (batch.isGap()) {
+                rebuild();
+                return;
+            }
+            if (batch.isEmpty()) {
+                subscription.commit(batch);
+                break;
+            }
+            for (ChangeEvent event : batch.getEvents()) {
+                if (event instanceof MemberChanged memberChanged) {
+                    changed.add(memberChanged.getMemberId());
+                }
+            }
+            subscription.commit(batch);
+        }
+        long offset = subscription.getOffset();
+        if (changed.isEmpty()) {
+            appliedOffset = offset;
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(changed);
+        Map<Long, String> usernames = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MemberJpaRepository.IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MemberJpaRepository.IN_CHUNK_SIZE));
+            for (Tuple row : queryFactory
+                    .select(member.id, member.username)
+                    .from(member)
+                    .where(member.id.in(chunk))
+                    .fetch()) {
+                usernames.put(row.get(member.id), row.get(member.username));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                index.put(id, usernames.get(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        appliedOffset = offset;
+        reloads.addAndGet(ids.size());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.repository.ngram;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UsernameTrigramIndexStats {
+
+    private boolean ready;
+    private int members;
+    private int trigrams;
+    private long postings;
+    private int maxCandidates;
+    private long indexedLookups;
+    private long fallbacks;
+    private long staleFallbacks;
+    private long reloads;
+    private long rebuilds;
+
+}
@@ -0,0 +1,54 @@
+package com.example.demo.repository.replica;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * primary 의 REPLICA_HEARTBEAT 에 주기적으로 시각을 쓰고, replica 에 보이는 값과의 차이를 복제 지연으로 본다.
+ * replica 를 읽지 못하면 지연을 무한대로 둬서 읽기가 primary 로 가게 한다.
+ */
+@Component
+@ConditionalOnProperty(name = "member.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+
+    private volatile long lastBeat;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        this.replica = new JdbcTemplate(routingDataSource.getReplica());
+
+        primary.execute("create table if not exists REPLICA_HEARTBEAT (ID int primary key, BEAT_AT bigint not null)");
+        primary.update("merge into REPLICA_HEARTBEAT key (ID) values (1, 0)");
+    }
+
+    @Scheduled(fixedDelayString = "${member.replica.heartbeat-interval-ms:1000}")
+    public void probe() {
+        beat();
+        measure();
+    }
+
+    void beat() {
+        long now = System.currentTimeMillis();
+        primary.update("update REPLICA_HEARTBEAT set BEAT_AT = ? where ID = 1", now);
+        lastBeat = now;
+    }
+
+    void measure() {
+        long lag;
+        try {
+            Long replicaBeat = replica.queryForObject("select BEAT_AT from REPLICA_HEARTBEAT where ID = 1", Long.class);
+            lag = replicaBeat == null ? Long.MAX_VALUE : Math.max(0, lastBeat - replicaBeat);
+        } catch (DataAccessException e) {
+            lag = Long.MAX_VALUE;
+        }
+        routingDataSource.updateLag(lag);
+    }
+}
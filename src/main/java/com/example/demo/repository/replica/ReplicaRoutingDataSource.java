@@ -0,0 +1,138 @@
+package com.example.demo.repository.replica;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 나머지는 primary 로 보낸다.
+ * <ul>
+ *     <li>{@link ReplicaLagMonitor} 가 잰 복제 지연이 max-lag 를 넘으면 읽기도 primary 로 보낸다</li>
+ *     <li>한 요청 안에서 쓰기 트랜잭션이 한 번이라도 있었으면, 그 요청의 이후 읽기는 primary 로 보낸다 (read-your-writes)</li>
+ *     <li>{@link #readFromPrimary} 를 부른 요청의 이후 읽기도 primary 로 보낸다. 응답을 primary 기준 버전(ETag 등)에 맞춰야 할 때 쓴다</li>
+ * </ul>
+ * 트랜잭션의 readOnly 여부는 커넥션을 실제로 가져올 때 정해져 있어야 하므로
+ * 반드시 {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} 로 감싸서 쓴다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final String WROTE_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".WROTE";
+    private static final String PRIMARY_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".PRIMARY";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+
+    // 첫 측정 전에는 지연을 모르므로 primary 로 읽는다
+    private volatile long lagMillis = Long.MAX_VALUE;
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    void updateLag(long lagMillis) {
+        this.lagMillis = lagMillis;
+    }
+
+    public ReplicaRoutingStats stats() {
+        long lag = lagMillis;
+        return new ReplicaRoutingStats(
+                lag == Long.MAX_VALUE ? -1 : lag,
+                maxLagMillis,
+                lag <= maxLagMillis,
+                replicaReads.get(),
+                lagFallbacks.get(),
+                stickyReads.get(),
+                pinnedReads.get()
+        );
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return route();
+    }
+
+    Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWrite();
+            }
+            return Route.PRIMARY;
+        }
+        if (wroteInCurrentRequest()) {
+            stickyReads.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (pinnedInCurrentRequest()) {
+            pinnedReads.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (lagMillis > maxLagMillis) {
+            lagFallbacks.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return Route.REPLICA;
+    }
+
+    private static void markWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * 이 요청의 이후 읽기를 primary 로 보낸다. replica 라우팅이 꺼져 있으면 아무 영향이 없다
+     */
+    public static void readFromPrimary(RequestAttributes attributes) {
+        attributes.setAttribute(PRIMARY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private static boolean pinnedInCurrentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(PRIMARY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    private static boolean wroteInCurrentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (replica instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
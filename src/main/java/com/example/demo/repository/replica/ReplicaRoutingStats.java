@@ -0,0 +1,19 @@
+package com.example.demo.repository.replica;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ReplicaRoutingStats {
+
+    private long lagMillis;
+    private long maxLagMillis;
+    private boolean replicaUsable;
+    private long replicaReads;
+    private long lagFallbacks;
+    private long stickyReads;
+    // readFromPrimary 로 primary 에 고정된 요청의 읽기
+    private long pinnedReads;
+
+}
@@ -0,0 +1,46 @@
+package com.example.demo.repository.shard;
+
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Function;
+
+/**
+ * 샤드 하나. 자기 DataSource 에 묶인 트랜잭션 안에서만 querydsl-sql 쿼리를 실행한다
+ */
+public class MemberShard {
+
+    private final int index;
+    private final DataSource dataSource;
+    private final SQLQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    MemberShard(int index, DataSource dataSource, com.querydsl.sql.Configuration configuration) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.queryFactory = new SQLQueryFactory(configuration, new SpringConnectionProvider(dataSource));
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public <T> T execute(Function<SQLQueryFactory, T> action) {
+        return transactionTemplate.execute(status -> action.apply(queryFactory));
+    }
+
+    long nextValue(String sequence) {
+        return jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+    }
+}
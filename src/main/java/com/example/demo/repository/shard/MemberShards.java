@@ -0,0 +1,95 @@
+package com.example.demo.repository.shard;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * member.sharding.urls 의 DataSource 마다 샤드를 하나씩 만든다.
+ * 회원은 team_id 로 샤드가 정해지고(팀이 없으면 0번), 팀은 모든 샤드에 복제된다.
+ * 회원 id 는 샤드 시퀀스 값 * 샤드 수 + 샤드 번호라서 id 만으로 샤드를 알 수 있다.
+ * <p>
+ * 샤드 DataSource 는 빈으로 등록하지 않는다. 등록하면 기본 DataSource 자동 설정이 꺼진다.
+ */
+@Component
+@ConditionalOnProperty(name = "member.sharding.enabled", havingValue = "true")
+public class MemberShards implements DisposableBean {
+
+    private final List<MemberShard> shards;
+
+    public MemberShards(@Value("${member.sharding.urls}") List<String> urls,
+                        @Value("${member.sharding.username:sa}") String username,
+                        @Value("${member.sharding.password:}") String password) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("member.sharding.urls is empty");
+        }
+
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(H2Templates.builder().build());
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("shard-schema.sql"));
+        List<MemberShard> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .url(urls.get(i).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            DatabasePopulatorUtils.execute(schema, dataSource);
+            shards.add(new MemberShard(i, dataSource, configuration));
+        }
+        this.shards = Collections.unmodifiableList(shards);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public List<MemberShard> all() {
+        return shards;
+    }
+
+    public MemberShard get(int index) {
+        return shards.get(index);
+    }
+
+    public MemberShard forTeam(Long teamId) {
+        return teamId == null ? shards.get(0) : shards.get(Math.floorMod(teamId, shards.size()));
+    }
+
+    public MemberShard forMember(Long memberId) {
+        return shards.get(Math.floorMod(memberId, shards.size()));
+    }
+
+    /**
+     * 팀은 모든 샤드에 있으므로 팀 조회와 팀 id 발급은 0번 샤드에서 한다
+     */
+    public MemberShard teamHome() {
+        return shards.get(0);
+    }
+
+    long memberId(MemberShard shard) {
+        return shard.nextValue("MEMBER_SEQ") * shards.size() + shard.getIndex();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (MemberShard shard : shards) {
+            if (shard.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
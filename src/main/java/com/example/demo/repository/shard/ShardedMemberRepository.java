@@ -0,0 +1,339 @@
+package com.example.demo.repository.shard;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.MemberTeamField;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static com.example.demo.repository.sql.MemberSqlSearchExpressions.*;
+import static com.example.demo.repository.sql.SMember.member;
+import static com.example.demo.repository.sql.STeam.team;
+
+/**
+ * {@link MemberShards} 위에서 회원/팀 저장과 검색을 처리한다.
+ * <ul>
+ *     <li>teamName 조건이 있으면 복제된 TEAM 에서 팀 id 를 찾아 그 팀이 있는 샤드에만 보낸다 (보통 한 샤드)</li>
+ *     <li>팀 조건이 없으면 모든 샤드에 병렬로 보내고, 샤드별로 정렬된 결과를 k-way merge 한다</li>
+ *     <li>페이징은 샤드마다 offset + size 개까지만 가져온 뒤 합쳐서 자른다. 뒤쪽 페이지일수록 샤드당 읽는 양이 늘어난다</li>
+ * </ul>
+ * 팀 복제는 샤드마다 따로 커밋된다. 샤드마다 MERGE 로 쓰고 실패하면 replication-attempts 번까지 다시 시도하며,
+ * 그래도 일부 샤드에 못 쓰면 IllegalStateException 을 던진다. 같은 팀 id 로 {@link #replicateTeam} 을 다시 부르면 이어서 맞춘다.
+ * <p>
+ * JPA 로 저장하는 기본 회원 저장소와는 별개의 저장소다. Member/Team 엔티티 저장이나 MemberJpaRepository 쿼리를
+ * 이쪽으로 보내지 않으며, 데이터도 {@link #saveTeam} / {@link #saveMember} 로 직접 넣은 것만 있다.
+ * 그래서 HTTP 로는 열지 않는다. 샤드 라우팅과 fan-out 검색을 기본 저장소에 붙이기 전에 따로 검증하기 위한 저장소다
+ */
+@Repository
+@ConditionalOnProperty(name = "member.sharding.enabled", havingValue = "true")
+public class ShardedMemberRepository {
+
+    private final MemberShards shards;
+    private final Executor executor;
+    private final int replicationAttempts;
+
+    public ShardedMemberRepository(MemberShards shards,
+                                   @Qualifier("applicationTaskExecutor") Executor executor,
+                                   @Value("${member.sharding.replication-attempts:3}") int replicationAttempts) {
+        if (replicationAttempts <= 0) {
+            throw new IllegalArgumentException("replication-attempts must be positive: " + replicationAttempts);
+        }
+        this.shards = shards;
+        this.executor = executor;
+        this.replicationAttempts = replicationAttempts;
+    }
+
+    /**
+     * @throws IllegalStateException 일부 샤드에 팀을 쓰지 못했을 때. 메시지의 팀 id 로 {@link #replicateTeam} 을 다시 부르면 된다
+     */
+    public Long saveTeam(String name) {
+        long teamId = shards.teamHome().nextValue("TEAM_SEQ");
+        replicateTeam(teamId, name);
+        return teamId;
+    }
+
+    /**
+     * 모든 샤드에 팀을 쓴다. 이미 있으면 덮어쓰므로 몇 번을 불러도 결과가 같다
+     *
+     * @throws IllegalStateException 재시도 후에도 쓰지 못한 샤드가 있을 때
+     */
+    public void replicateTeam(Long teamId, String name) {
+        List<Integer> failed = new ArrayList<>();
+        RuntimeException lastFailure = null;
+        for (MemberShard shard : shards.all()) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    shard.execute(query -> query.merge(team)
+                            .keys(team.id)
+                            .columns(team.id, team.name)
+                            .values(teamId, name)
+                            .execute());
+                    break;
+                } catch (RuntimeException e) {
+                    if (attempt >= replicationAttempts) {
+                        failed.add(shard.getIndex());
+                        lastFailure = e;
+                        break;
+                    }
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("team " + teamId + " was not replicated to shards " + failed, lastFailure);
+        }
+    }
+
+    public Long saveMember(String username, int age, Long teamId) {
+        MemberShard shard = shards.forTeam(teamId);
+        long memberId = shards.memberId(shard);
+        shard.execute(query -> query.insert(member)
+                .set(member.memberId, memberId)
+                .set(member.username, username)
+                .set(member.age, age)
+                .set(member.teamId, teamId)
+                .execute());
+        return memberId;
+    }
+
+    public Optional<MemberTeamDto> findById(Long memberId) {
+        return Optional.ofNullable(shards.forMember(memberId).execute(query ->
+                selectMemberTeam(query)
+                        .where(member.memberId.eq(memberId))
+                        .fetchOne()));
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<Sort.Order> orders = withTieBreaker(Sort.unsorted());
+        OrderSpecifier<?>[] orderSpecifiers = orderSpecifiers(orders);
+
+        List<List<MemberTeamDto>> runs = fanOut(targetShards(condition), query ->
+                selectMemberTeam(query, condition)
+                        .orderBy(orderSpecifiers)
+                        .fetch());
+
+        return mergeSorted(runs, comparator(orders), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @throws IllegalArgumentException MemberTeamDto 필드가 아닌 정렬 조건이 있을 때
+     */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberShard> targets = targetShards(condition);
+        List<Sort.Order> orders = withTieBreaker(pageable.getSort());
+        OrderSpecifier<?>[] orderSpecifiers = orderSpecifiers(orders);
+
+        // 어느 샤드의 행이 이 페이지에 들어올지 모르므로 샤드마다 앞에서부터 offset + size 개를 가져온다
+        long perShardLimit = pageable.getOffset() + pageable.getPageSize();
+        List<List<MemberTeamDto>> runs = fanOut(targets, query ->
+                selectMemberTeam(query, condition)
+                        .orderBy(orderSpecifiers)
+                        .limit(perShardLimit)
+                        .fetch());
+
+        List<MemberTeamDto> content = mergeSorted(runs, comparator(orders), pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(targets, condition));
+    }
+
+    public long count(MemberSearchCondition condition) {
+        return count(targetShards(condition), condition);
+    }
+
+    List<MemberShard> targetShards(MemberSearchCondition condition) {
+        if (!StringUtils.hasText(condition.getTeamName())) {
+            return shards.all();
+        }
+        List<Long> teamIds = shards.teamHome().execute(query -> query
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(condition.getTeamName()))
+                .fetch());
+        return teamIds.stream()
+                .map(shards::forTeam)
+                .distinct()
+                .sorted(Comparator.comparingInt(MemberShard::getIndex))
+                .toList();
+    }
+
+    private long count(List<MemberShard> targets, MemberSearchCondition condition) {
+        return fanOut(targets, query -> countQuery(query, condition).fetchOne())
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * 샤드가 하나면 호출한 스레드에서 바로 실행한다
+     */
+    private <T> List<T> fanOut(List<MemberShard> targets, Function<SQLQueryFactory, T> action) {
+        if (targets.size() == 1) {
+            return List.of(targets.get(0).execute(action));
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.size());
+        for (MemberShard shard : targets) {
+            futures.add(CompletableFuture.supplyAsync(() -> shard.execute(action), executor));
+        }
+
+        List<T> results = new ArrayList<>(targets.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private SQLQuery<MemberTeamDto> selectMemberTeam(SQLQueryFactory query) {
+        return query
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id));
+    }
+
+    private SQLQuery<MemberTeamDto> selectMemberTeam(SQLQueryFactory query, MemberSearchCondition condition) {
+        return selectMemberTeam(query)
+                .where(
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private SQLQuery<Long> countQuery(SQLQueryFactory query, MemberSearchCondition condition) {
+        return query
+                .select(MEMBER_COUNT)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    /**
+     * 샤드를 합칠 때 순서가 항상 정해지도록 memberId 를 마지막 정렬 조건으로 붙인다
+     */
+    private static List<Sort.Order> withTieBreaker(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>(sort.toList());
+        String memberId = MemberTeamField.MEMBER_ID.getFieldName();
+        if (sort.getOrderFor(memberId) == null) {
+            orders.add(Sort.Order.asc(memberId));
+        }
+        return orders;
+    }
+
+    /**
+     * null 은 오름차순에서 앞, 내림차순에서 뒤로 DB 와 {@link #comparator(List)} 가 같은 순서를 쓰게 맞춘다
+     */
+    private static OrderSpecifier<?>[] orderSpecifiers(List<Sort.Order> orders) {
+        OrderSpecifier<?>[] specifiers = new OrderSpecifier<?>[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            ComparableExpressionBase<?> path = sortPath(MemberTeamField.fromFieldName(order.getProperty()));
+            specifiers[i] = order.isAscending() ? path.asc().nullsFirst() : path.desc().nullsLast();
+        }
+        return specifiers;
+    }
+
+    private static Comparator<MemberTeamDto> comparator(List<Sort.Order> orders) {
+        Comparator<MemberTeamDto> comparator = null;
+        for (Sort.Order order : orders) {
+            Function<MemberTeamDto, Comparable<?>> key = sortKey(MemberTeamField.fromFieldName(order.getProperty()));
+            Comparator<MemberTeamDto> next = (a, b) -> compareNullsFirst(key.apply(a), key.apply(b));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNullsFirst(Comparable a, Comparable b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? -1 : 1);
+        }
+        return a.compareTo(b);
+    }
+
+    private static ComparableExpressionBase<?> sortPath(MemberTeamField field) {
+        return switch (field) {
+            case MEMBER_ID -> member.memberId;
+            case USERNAME -> member.username;
+            case AGE -> member.age;
+            case TEAM_ID -> team.id;
+            case TEAM_NAME -> team.name;
+        };
+    }
+
+    private static Function<MemberTeamDto, Comparable<?>> sortKey(MemberTeamField field) {
+        return switch (field) {
+            case MEMBER_ID -> MemberTeamDto::getMemberId;
+            case USERNAME -> MemberTeamDto::getUsername;
+            case AGE -> MemberTeamDto::getAge;
+            case TEAM_ID -> MemberTeamDto::getTeamId;
+            case TEAM_NAME -> MemberTeamDto::getTeamName;
+        };
+    }
+
+    /**
+     * 각각 comparator 순서로 정렬된 목록들을 합쳐서 skip 개를 건너뛰고 최대 limit 개를 돌려준다
+     */
+    static <T> List<T> mergeSorted(List<List<T>> runs, Comparator<? super T> comparator, long skip, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(runs.size(), 1),
+                (a, b) -> comparator.compare(runs.get(a[0]).get(a[1]), runs.get(b[0]).get(b[1])));
+        int total = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            total += runs.get(i).size();
+            if (!runs.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>((int) Math.max(0, Math.min(limit, total - skip)));
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<T> run = runs.get(head[0]);
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(run.get(head[1]));
+            }
+            if (++head[1] < run.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.repository.slowquery;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 같은 모양의 느린 쿼리 중 가장 최근 것. sql, parameters, rows, elapsedMs 는 최근 것이고 count, maxElapsedMs 는 누적이다.
+ * explain 은 비동기로 채워지므로 처음에는 null 이다
+ */
+@Getter
+public class SlowQuery {
+
+    private final long id;
+    private final Instant recordedAt;
+    private final String sql;
+    private final List<String> parameters;
+    // select 는 읽은 행 수, update/delete 는 바뀐 행 수, 알 수 없으면 -1
+    private final long rows;
+    private final double elapsedMs;
+    private final long count;
+    private final double maxElapsedMs;
+    private final String thread;
+    private volatile String explain;
+
+    /**
+     * @param previous 같은 모양으로 먼저 기록된 항목. 없으면 null
+     */
+    SlowQuery(long id, String sql, List<String> parameters, long rows, long elapsedNanos, SlowQuery previous) {
+        this.id = id;
+        this.recordedAt = Instant.now();
+        this.sql = sql;
+        this.parameters = parameters;
+        this.rows = rows;
+        this.elapsedMs = elapsedNanos / 1_000_000.0;
+        this.thread = Thread.currentThread().getName();
+        this.count = previous == null ? 1 : previous.count + 1;
+        this.maxElapsedMs = previous == null ? elapsedMs : Math.max(previous.maxElapsedMs, elapsedMs);
+        this.explain = previous == null ? null : previous.explain;
+    }
+
+    void setExplain(String explain) {
+        this.explain = explain;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.repository.slowquery;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PreparedStatement 실행 시간을 재서 느린 것을 {@link SlowQueryLog} 에 넘기는 DataSource.
+ * Querydsl JPA 쿼리는 Hibernate 가 렌더링한 SQL 로 여기까지 내려오므로, SQL 과 바인딩된 파라미터를 그대로 볼 수 있다.
+ * <p>
+ * 시간은 execute* 호출 자체만 잰다. 행을 읽는 동안은 애플리케이션 처리도 섞이므로 넣지 않는다.
+ * select 는 읽은 행 수를 알기 위해 ResultSet 을 닫을 때 기록한다.
+ * DDL 등 Statement 로 실행하는 SQL 과 batch 는 재지 않는다
+ */
+class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    SlowQueryDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = call(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                        return new RecordingStatement(statement, (String) args[0]).proxy();
+                    }
+                    return result;
+                });
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 한 PreparedStatement 의 파라미터와 실행 중인 select 를 추적한다. statement 는 한 스레드에서만 쓰인다
+     */
+    private class RecordingStatement implements InvocationHandler {
+
+        private final PreparedStatement target;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private boolean running;
+        private long executeNanos;
+        private long rows;
+
+        RecordingStatement(PreparedStatement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            boolean noArgs = args == null || args.length == 0;
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+
+            if (name.equals("executeQuery") && noArgs) {
+                finish();
+                long start = System.nanoTime();
+                ResultSet resultSet = (ResultSet) call(target, method, args);
+                executeNanos = System.nanoTime() - start;
+                running = true;
+                rows = 0;
+                return countRows(resultSet);
+            }
+            if ((name.equals("executeUpdate") || name.equals("executeLargeUpdate") || name.equals("execute")) && noArgs) {
+                long start = System.nanoTime();
+                Object result = call(target, method, args);
+                long count = result instanceof Number number ? number.longValue() : -1;
+                record(count, System.nanoTime() - start);
+                return result;
+            }
+            if (name.equals("close")) {
+                try {
+                    return call(target, method, args);
+                } finally {
+                    finish();
+                }
+            }
+            return call(target, method, args);
+        }
+
+        private ResultSet countRows(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        Object result = call(resultSet, method, args);
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                            rows++;
+                        } else if (method.getName().equals("close")) {
+                            finish();
+                        }
+                        return result;
+                    });
+        }
+
+        private void finish() {
+            if (running) {
+                running = false;
+                record(rows, executeNanos);
+            }
+        }
+
+        private void record(long rows, long elapsedNanos) {
+            if (slowQueryLog.isSlow(elapsedNanos)) {
+                slowQueryLog.record(sql, parameters, rows, elapsedNanos, getTargetDataSource());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.repository.slowquery;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 애플리케이션이 쓰는 "dataSource" 빈을 {@link SlowQueryDataSource} 로 감싼다.
+ * replica 설정의 ReplicaRoutingDataSource 처럼 타입으로 주입받는 다른 DataSource 빈은 건드리지 않는다
+ */
+@Component
+@ConditionalOnProperty(name = "member.slow-query.enabled", havingValue = "true")
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return new SlowQueryDataSource(dataSource, slowQueryLog.getObject());
+        }
+        return bean;
+    }
+}
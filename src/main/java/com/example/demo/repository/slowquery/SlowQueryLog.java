@@ -0,0 +1,228 @@
+package com.example.demo.repository.slowquery;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * threshold-ms 이상 걸린 쿼리를 SQL 모양별로 최근 capacity 개까지 보관한다.
+ * 공백과 IN 목록 길이만 다른 SQL 은 같은 것으로 보고 한 항목의 횟수와 최대 시간만 늘린다.
+ * <p>
+ * select 는 같은 SQL 과 파라미터로 EXPLAIN 을 실행해서 실행 계획을 붙인다.
+ * EXPLAIN 은 전용 스레드 하나와 explain-queue 크기의 큐에서 돌고, 큐가 차면 버린다.
+ * 같은 모양의 SQL 은 이미 구한 계획을 다시 쓰고, 새로 실행하는 EXPLAIN 은 explain-interval-ms 에 한 번으로 제한한다.
+ * 느린 쿼리가 몰릴 때 EXPLAIN 이 DB 부하를 더 키우지 않게 하기 위해서다.
+ * <p>
+ * redact-parameters 면 파라미터 값 대신 타입만 남긴다. EXPLAIN 에는 실제 값을 쓰지만 보관하지 않는다
+ */
+@Component
+@ConditionalOnProperty(name = "member.slow-query.enabled", havingValue = "true")
+public class SlowQueryLog {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final String SKIPPED = "EXPLAIN skipped: ";
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean redactParameters;
+    private final long explainIntervalNanos;
+    private final ThreadPoolExecutor explainExecutor;
+
+    // 정규화한 SQL -> 항목. 가장 최근에 기록된 것이 마지막
+    private final LinkedHashMap<String, SlowQuery> entries = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong explainFailures = new AtomicLong();
+    private final AtomicLong explainSkipped = new AtomicLong();
+    private long lastExplainNanos;
+    private boolean explainStarted;
+
+    public SlowQueryLog(@Value("${member.slow-query.threshold-ms:200}") long thresholdMillis,
+                        @Value("${member.slow-query.capacity:100}") int capacity,
+                        @Value("${member.slow-query.redact-parameters:true}") boolean redactParameters,
+                        @Value("${member.slow-query.explain-interval-ms:1000}") long explainIntervalMillis,
+                        @Value("${member.slow-query.explain-queue:16}") int explainQueue) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.capacity = capacity;
+        this.redactParameters = redactParameters;
+        this.explainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(explainIntervalMillis);
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(explainQueue),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * @param explainSource EXPLAIN 을 실행할 DataSource. 기록용으로 감싸지 않은 원본이어야 EXPLAIN 자체가 기록되지 않는다
+     */
+    void record(String sql, Map<Integer, Object> parameters, long rows, long elapsedNanos, DataSource explainSource) {
+        List<String> shown = new ArrayList<>(parameters.size());
+        for (Object value : parameters.values()) {
+            shown.add(show(value));
+        }
+        String normalized = normalize(sql);
+        recorded.incrementAndGet();
+
+        SlowQuery slowQuery;
+        boolean explain = false;
+        synchronized (entries) {
+            SlowQuery previous = entries.remove(normalized);
+            slowQuery = new SlowQuery(sequence.incrementAndGet(), sql, shown, rows, elapsedNanos, previous);
+            entries.put(normalized, slowQuery);
+            if (entries.size() > capacity) {
+                Iterator<SlowQuery> oldest = entries.values().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+
+            if (isSelect(sql) && needsExplain(previous)) {
+                long now = System.nanoTime();
+                if (explainStarted && now - lastExplainNanos < explainIntervalNanos) {
+                    explainSkipped.incrementAndGet();
+                    slowQuery.setExplain(SKIPPED + "rate limited");
+                } else {
+                    explainStarted = true;
+                    lastExplainNanos = now;
+                    explain = true;
+                }
+            }
+        }
+
+        if (explain) {
+            Map<Integer, Object> values = new TreeMap<>(parameters);
+            try {
+                explainExecutor.execute(() -> explained(normalized, slowQuery, explain(sql, values, explainSource)));
+            } catch (RejectedExecutionException e) {
+                explainSkipped.incrementAndGet();
+                slowQuery.setExplain(SKIPPED + "queue full");
+            }
+        }
+    }
+
+    /**
+     * 처음 보는 모양이거나 지난번에 건너뛴 것만 새로 EXPLAIN 한다. 계획이 있거나 실행 중이면 그것을 쓴다
+     */
+    private static boolean needsExplain(SlowQuery previous) {
+        if (previous == null) {
+            return true;
+        }
+        String explain = previous.getExplain();
+        return explain != null && explain.startsWith(SKIPPED);
+    }
+
+    /**
+     * EXPLAIN 이 도는 동안 같은 모양이 다시 기록됐으면 새 항목에도 계획을 붙인다
+     */
+    private void explained(String normalized, SlowQuery slowQuery, String plan) {
+        slowQuery.setExplain(plan);
+        synchronized (entries) {
+            SlowQuery current = entries.get(normalized);
+            if (current != null && current.getExplain() == null) {
+                current.setExplain(plan);
+            }
+        }
+    }
+
+    /**
+     * 최근 것부터
+     */
+    public List<SlowQuery> entries() {
+        synchronized (entries) {
+            List<SlowQuery> newestFirst = new ArrayList<>(entries.values());
+            Collections.reverse(newestFirst);
+            return newestFirst;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public SlowQueryLogStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new SlowQueryLogStats(TimeUnit.NANOSECONDS.toMillis(thresholdNanos), capacity, redactParameters,
+                recorded.get(), size, explainFailures.get(), explainSkipped.get());
+    }
+
+    /**
+     * 공백을 하나로 줄이고 (?, ?, ?) 같은 파라미터 목록을 (?...) 로 바꾼다. IN 목록 길이만 다른 SQL 을 하나로 묶는다
+     */
+    static String normalize(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        return PARAMETER_LIST.matcher(collapsed).replaceAll("?...");
+    }
+
+    private String explain(String sql, Map<Integer, Object> values, DataSource explainSource) {
+        try (Connection connection = explainSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            for (Map.Entry<Integer, Object> value : values.entrySet()) {
+                statement.setObject(value.getKey(), value.getValue());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | RuntimeException e) {
+            explainFailures.incrementAndGet();
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private String show(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        return redactParameters ? "<" + value.getClass().getSimpleName() + ">" : String.valueOf(value);
+    }
+
+    private static boolean isSelect(String sql) {
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return head.startsWith("select") || head.startsWith("with");
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository.slowquery;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SlowQueryLogStats {
+
+    private long thresholdMs;
+    private int capacity;
+    private boolean redactParameters;
+    // 지금까지 기록한 수. 같은 모양끼리는 한 항목으로 합쳐지고 size 를 넘은 것은 버려졌다
+    private long recorded;
+    private int size;
+    private long explainFailures;
+    // 간격 제한이나 큐가 차서 실행하지 않은 EXPLAIN 수
+    private long explainSkipped;
+
+}
@@ -0,0 +1,271 @@
+package com.example.demo.repository.snapshot;
+
+import com.example.demo.dto.MemberTeamDto;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * (id, username, age, teamId, teamName) 를 direct ByteBuffer 에 고정 길이 레코드로 저장하는 읽기 전용 스냅샷.
+ * 레코드는 memberId 오름차순으로 정렬되어 있어 id 조회는 이진 탐색, username 조회는 open addressing 해시 인덱스를 사용한다.
+ * DB 에서 만들 때는 {@link Builder} 로 행을 하나씩 넣는다.
+ */
+public final class MemberSnapshot {
+
+    private static final int ID = 0;
+    private static final int AGE = 8;
+    private static final int TEAM_ID = 12;
+    private static final int USERNAME_OFFSET = 20;
+    private static final int USERNAME_LENGTH = 24;
+    private static final int TEAM_NAME_OFFSET = 28;
+    private static final int TEAM_NAME_LENGTH = 32;
+    private static final int RECORD_SIZE = 36;
+
+    private static final long NULL_ID = -1L;
+    private static final int NULL_LENGTH = -1;
+    private static final int EMPTY_SLOT = 0;
+
+    private final int size;
+    private final ByteBuffer records;
+    private final ByteBuffer strings;
+    private final IntBuffer usernameIndex;
+    private final int indexMask;
+    private final long builtAt;
+
+    private MemberSnapshot(int size, ByteBuffer records, ByteBuffer strings, IntBuffer usernameIndex, long builtAt) {
+        this.size = size;
+        this.records = records;
+        this.strings = strings;
+        this.usernameIndex = usernameIndex;
+        this.indexMask = usernameIndex.capacity() - 1;
+        this.builtAt = builtAt;
+    }
+
+    public static Builder builder(long builtAt) {
+        return new Builder(builtAt);
+    }
+
+    public static MemberSnapshot of(List<MemberTeamDto> rows, long builtAt) {
+        List<MemberTeamDto> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        Builder builder = builder(builtAt);
+        for (MemberTeamDto row : sorted) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    public Optional<MemberTeamDto> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = records.getLong(mid * RECORD_SIZE + ID);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return Optional.of(read(mid));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<MemberTeamDto> findByUsername(String username) {
+        List<MemberTeamDto> results = new ArrayList<>();
+        if (username == null) {
+            return results;
+        }
+        byte[] key = username.getBytes(StandardCharsets.UTF_8);
+        int slot = hash(username) & indexMask;
+        int entry;
+        while ((entry = usernameIndex.get(slot)) != EMPTY_SLOT) {
+            int row = entry - 1;
+            if (usernameMatches(row, key)) {
+                results.add(read(row));
+            }
+            slot = (slot + 1) & indexMask;
+        }
+        return results;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long builtAt() {
+        return builtAt;
+    }
+
+    public long memoryBytes() {
+        return (long) records.capacity() + strings.capacity() + (long) usernameIndex.capacity() * Integer.BYTES;
+    }
+
+    private MemberTeamDto read(int row) {
+        int base = row * RECORD_SIZE;
+        long teamId = records.getLong(base + TEAM_ID);
+        return new MemberTeamDto(
+                records.getLong(base + ID),
+                readString(base + USERNAME_OFFSET, base + USERNAME_LENGTH),
+                records.getInt(base + AGE),
+                teamId == NULL_ID ? null : teamId,
+                readString(base + TEAM_NAME_OFFSET, base + TEAM_NAME_LENGTH));
+    }
+
+    private boolean usernameMatches(int row, byte[] key) {
+        int base = row * RECORD_SIZE;
+        if (records.getInt(base + USERNAME_LENGTH) != key.length) {
+            return false;
+        }
+        int offset = records.getInt(base + USERNAME_OFFSET);
+        for (int i = 0; i < key.length; i++) {
+            if (strings.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int offsetField, int lengthField) {
+        int length = records.getInt(lengthField);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get(records.getInt(offsetField), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * load factor 0.5 이하를 유지하는 2의 거듭제곱
+     */
+    private static int indexCapacity(int size) {
+        long capacity = Long.highestOneBit(Math.max(size, 1) * 2L - 1) << 1;
+        if (capacity * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("snapshot username index too large: " + size + " rows");
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * used 바이트까지 쓴 buffer 에 required 바이트가 들어가도록 두 배씩 늘린다. 한 버퍼는 2GB 를 넘을 수 없다
+     */
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int used, long required) {
+        if (required <= buffer.capacity()) {
+            return buffer;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("snapshot buffer too large: " + required + " bytes");
+        }
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(required, buffer.capacity() * 2L));
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(buffer.duplicate().clear().limit(used));
+        grown.position(buffer.position());
+        return grown;
+    }
+
+    private static int hash(String username) {
+        int h = username.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * memberId 오름차순으로 한 행씩 받아 바로 버퍼에 쓴다. 전체 행을 힙의 List 로 모으지 않는다.
+     * 버퍼는 모자랄 때마다 두 배로 늘리고, username 인덱스는 행 수가 정해진 {@link #build()} 때 만든다
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_ROWS = 1024;
+
+        private final long builtAt;
+        private ByteBuffer records = ByteBuffer.allocateDirect(INITIAL_ROWS * RECORD_SIZE);
+        private ByteBuffer strings = ByteBuffer.allocateDirect(INITIAL_ROWS * 16);
+        private int[] usernameHashes = new int[INITIAL_ROWS];
+        // 같은 팀 이름은 한 번만 저장하고 {offset, length} 를 공유한다
+        private final Map<String, int[]> teamNames = new HashMap<>();
+        private int size;
+        private long lastId = Long.MIN_VALUE;
+
+        private Builder(long builtAt) {
+            this.builtAt = builtAt;
+        }
+
+        public void add(MemberTeamDto row) {
+            Long id = row.getMemberId();
+            if (id == null || id <= lastId) {
+                throw new IllegalArgumentException("memberId must be non-null and ascending: " + id + " after " + lastId);
+            }
+            lastId = id;
+
+            records = ensureCapacity(records, size * RECORD_SIZE, (size + 1L) * RECORD_SIZE);
+            if (size == usernameHashes.length) {
+                usernameHashes = Arrays.copyOf(usernameHashes, size * 2);
+            }
+            int base = size * RECORD_SIZE;
+            records.putLong(base + ID, id);
+            records.putInt(base + AGE, row.getAge());
+            records.putLong(base + TEAM_ID, row.getTeamId() == null ? NULL_ID : row.getTeamId());
+
+            String username = row.getUsername();
+            writeString(base + USERNAME_OFFSET, base + USERNAME_LENGTH,
+                    username == null ? null : username.getBytes(StandardCharsets.UTF_8));
+            if (username != null) {
+                usernameHashes[size] = hash(username);
+            }
+
+            String teamName = row.getTeamName();
+            int[] shared = teamName == null ? null : teamNames.get(teamName);
+            if (shared != null) {
+                records.putInt(base + TEAM_NAME_OFFSET, shared[0]);
+                records.putInt(base + TEAM_NAME_LENGTH, shared[1]);
+            } else {
+                byte[] encoded = teamName == null ? null : teamName.getBytes(StandardCharsets.UTF_8);
+                writeString(base + TEAM_NAME_OFFSET, base + TEAM_NAME_LENGTH, encoded);
+                if (encoded != null) {
+                    teamNames.put(teamName, new int[]{records.getInt(base + TEAM_NAME_OFFSET), encoded.length});
+                }
+            }
+            size++;
+        }
+
+        public MemberSnapshot build() {
+            IntBuffer usernameIndex = ByteBuffer.allocateDirect(indexCapacity(size) * Integer.BYTES).asIntBuffer();
+            int mask = usernameIndex.capacity() - 1;
+            for (int i = 0; i < size; i++) {
+                if (records.getInt(i * RECORD_SIZE + USERNAME_LENGTH) == NULL_LENGTH) {
+                    continue;
+                }
+                int slot = usernameHashes[i] & mask;
+                while (usernameIndex.get(slot) != EMPTY_SLOT) {
+                    slot = (slot + 1) & mask;
+                }
+                usernameIndex.put(slot, i + 1);
+            }
+            return new MemberSnapshot(size, records, strings, usernameIndex, builtAt);
+        }
+
+        private void writeString(int offsetField, int lengthField, byte[] value) {
+            if (value == null) {
+                records.putInt(offsetField, 0);
+                records.putInt(lengthField, NULL_LENGTH);
+                return;
+            }
+            strings = ensureCapacity(strings, strings.position(), (long) strings.position() + value.length);
+            records.putInt(offsetField, strings.position());
+            records.putInt(lengthField, value.length);
+            strings.put(value);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.repository.snapshot;
+
+import com.example.demo.dto.MemberTeamDto;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+import static com.example.demo.repository.MemberSearchExpressions.MEMBER_TEAM_DTO;
+
+/**
+ * 주기적으로 DB 에서 {@link MemberSnapshot} 을 다시 만들고, 스냅샷이 max-staleness 이내일 때만 조회를 스냅샷으로 처리한다.
+ * 스냅샷이 없거나 오래되었으면 DB 로 조회한다.
+ * 다시 만들 때는 id 순으로 fetch-size 개씩 커서로 읽어 바로 스냅샷 버퍼에 쓰므로 전체 행을 힙에 올리지 않는다.
+ */
+@Service
+@ConditionalOnProperty(name = "member.snapshot.enabled", havingValue = "true")
+public class MemberSnapshotService {
+
+    private final JPAQueryFactory queryFactory;
+    private final long maxStalenessMillis;
+    private final int fetchSize;
+
+    private volatile MemberSnapshot snapshot;
+    private volatile long lastRebuildMillis;
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleFallbacks = new AtomicLong();
+
+    public MemberSnapshotService(JPAQueryFactory queryFactory,
+                                 @Value("${member.snapshot.max-staleness-ms:10000}") long maxStalenessMillis,
+                                 @Value("${member.snapshot.fetch-size:1000}") int fetchSize) {
+        this.queryFactory = queryFactory;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.fetchSize = fetchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${member.snapshot.refresh-interval-ms:5000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        MemberSnapshot.Builder builder = MemberSnapshot.builder(start);
+        try (Stream<MemberTeamDto> rows = selectMemberTeam()
+                .orderBy(member.id.asc())
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .stream()) {
+            rows.forEach(builder::add);
+        }
+        snapshot = builder.build();
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        rebuilds.incrementAndGet();
+    }
+
+    public Optional<MemberTeamDto> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        MemberSnapshot current = freshSnapshot();
+        if (current == null) {
+            return Optional.ofNullable(selectMemberTeam()
+                    .where(member.id.eq(id))
+                    .fetchOne());
+        }
+        return current.findById(id);
+    }
+
+    public List<MemberTeamDto> findByUsername(String username) {
+        if (username == null) {
+            return List.of();
+        }
+        MemberSnapshot current = freshSnapshot();
+        if (current == null) {
+            return selectMemberTeam()
+                    .where(member.username.eq(username))
+                    .fetch();
+        }
+        return current.findByUsername(username);
+    }
+
+    public MemberSnapshotStats stats() {
+        MemberSnapshot current = snapshot;
+        long ageMillis = current == null ? -1 : System.currentTimeMillis() - current.builtAt();
+        return new MemberSnapshotStats(
+                current == null ? 0 : current.size(),
+                current == null ? 0 : current.memoryBytes(),
+                ageMillis,
+                maxStalenessMillis,
+                current == null || ageMillis > maxStalenessMillis,
+                rebuilds.get(),
+                lastRebuildMillis,
+                hits.get(),
+                staleFallbacks.get());
+    }
+
+    private MemberSnapshot freshSnapshot() {
+        MemberSnapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.builtAt() > maxStalenessMillis) {
+            staleFallbacks.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return current;
+    }
+
+    private JPAQuery<MemberTeamDto> selectMemberTeam() {
+        return queryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(member.team, team);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MemberSnapshotStats {
+
+    private int size;
+    private long memoryBytes;
+    private long ageMillis;
+    private long maxStalenessMillis;
+    private boolean stale;
+    private long rebuilds;
+    private long lastRebuildMillis;
+    private long hits;
+    private long staleFallbacks;
+
+}
@@ -0,0 +1,137 @@
+package com.example.demo.repository.sql;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.repository.MemberRepositoryCustom;
+import com.example.demo.repository.PageCountMode;
+import com.example.demo.repository.deadline.ConcurrentQuery;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.deadline.RunningStatements;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.example.demo.repository.sql.MemberSqlSearchExpressions.*;
+import static com.example.demo.repository.sql.SMember.member;
+import static com.example.demo.repository.sql.STeam.team;
+
+/**
+ * MemberTeamDto 검색을 JPA 엔티티/HQL 변환 없이 querydsl-sql 로 바로 실행하는 구현.
+ * sql 프로파일에서 {@link MemberRepositoryCustom} 의 기본 구현으로 사용된다.
+ * JPA 구현과 같이 요청 마감({@link QueryDeadlines})을 걸고, 동시 count 는 {@link ConcurrentQuery} 로 취소한다.
+ */
+@Primary
+@Profile("sql")
+@Repository
+@Transactional(readOnly = true)
+public class MemberSqlRepository implements MemberRepositoryCustom {
+
+    private final SQLQueryFactory queryFactory;
+    private final TransactionTemplate countTransaction;
+    private final Executor countExecutor;
+    private final QueryDeadlines queryDeadlines;
+    private final RunningStatements runningStatements;
+
+    public MemberSqlRepository(SQLQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("applicationTaskExecutor") Executor countExecutor,
+                               QueryDeadlines queryDeadlines,
+                               RunningStatements runningStatements) {
+        this.queryFactory = queryFactory;
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setReadOnly(true);
+        this.countExecutor = countExecutor;
+        this.queryDeadlines = queryDeadlines;
+        this.runningStatements = runningStatements;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return queryDeadlines.apply(selectMemberTeam(condition)).fetch();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageComplex(condition, pageable, PageCountMode.SEQUENTIAL);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PageCountMode countMode) {
+        ConcurrentQuery<Long> concurrentCount = countMode == PageCountMode.CONCURRENT
+                ? ConcurrentQuery.start(() -> countTransaction.execute(status -> countQuery(condition).fetchOne()),
+                        countExecutor, runningStatements)
+                : null;
+
+        List<MemberTeamDto> results = queryDeadlines.apply(selectMemberTeam(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize()))
+                .fetch();
+
+        if (concurrentCount == null) {
+            SQLQuery<Long> countQuery = queryDeadlines.apply(countQuery(condition));
+            return PageableExecutionUtils.getPage(results, pageable, countQuery::fetchOne);
+        }
+
+        try {
+            return PageableExecutionUtils.getPage(results, pageable, concurrentCount::join);
+        } finally {
+            // 마지막 페이지라 count 가 필요 없으면 기다리지 않고, 실행 중인 count statement 도 취소한다
+            concurrentCount.cancel();
+        }
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> results = queryDeadlines.apply(selectMemberTeam(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1))
+                .fetch();
+
+        boolean hasNext = results.size() > pageable.getPageSize();
+        if (hasNext) {
+            results.remove(pageable.getPageSize());
+        }
+
+        return new SliceImpl<>(results, pageable, hasNext);
+    }
+
+    private SQLQuery<MemberTeamDto> selectMemberTeam(MemberSearchCondition condition) {
+        return queryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private SQLQuery<Long> countQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(MEMBER_COUNT)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+}
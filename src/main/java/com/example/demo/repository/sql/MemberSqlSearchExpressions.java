@@ -0,0 +1,59 @@
+package com.example.demo.repository.sql;
+
+import com.example.demo.dto.QMemberTeamDto;
+import com.example.demo.dto.UsernameMatch;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import org.springframework.util.StringUtils;
+
+import static com.example.demo.repository.sql.SMember.member;
+import static com.example.demo.repository.sql.STeam.team;
+
+/**
+ * {@link com.example.demo.repository.MemberSearchExpressions} 의 querydsl-sql 버전.
+ * MEMBER left join TEAM on MEMBER.TEAM_ID = TEAM.ID 를 전제로 한다.
+ */
+public final class MemberSqlSearchExpressions {
+
+    public static final QMemberTeamDto MEMBER_TEAM_DTO = new QMemberTeamDto(
+            member.memberId,
+            member.username,
+            member.age,
+            team.id,
+            team.name
+    );
+
+    public static final NumberExpression<Long> MEMBER_COUNT = member.memberId.count();
+
+    private MemberSqlSearchExpressions() {
+    }
+
+    public static BooleanExpression usernameEq(String username, UsernameMatch match) {
+        if (!StringUtils.hasText(username)) {
+            return null;
+        }
+        if (match == null) {
+            match = UsernameMatch.EXACT;
+        }
+        return switch (match) {
+            case EXACT -> member.username.eq(username);
+            case PREFIX -> member.username.startsWith(username);
+            case CONTAINS -> member.username.contains(username);
+            case IGNORE_CASE -> member.usernameLower.eq(UsernameMatch.normalize(username));
+            case PREFIX_IGNORE_CASE -> member.usernameLower.startsWith(UsernameMatch.normalize(username));
+            case CONTAINS_IGNORE_CASE -> member.usernameLower.contains(UsernameMatch.normalize(username));
+        };
+    }
+
+    public static BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.demo.repository.support;
+
+import com.example.demo.repository.MemberJpaRepository;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 바깥 쿼리를 참조하지 않는(uncorrelated) 서브쿼리를 한 번만 실행해서 상수로 바꿔준다.
+ * <ul>
+ *     <li>{@code age.eq(select(max)...)}, {@code age.goe(select(avg)...)} 처럼 스칼라 값과 비교하는 서브쿼리</li>
+ *     <li>{@code age.in(select(age)...)} 처럼 IN 절에 쓰인 서브쿼리</li>
+ *     <li>select 절에 쓰여서 row 마다 실행될 수 있는 스칼라 서브쿼리</li>
+ * </ul>
+ * 바깥 쿼리를 참조하는 서브쿼리, 결과가 없거나(null, 빈 목록) 여러 건인 스칼라 서브쿼리는 그대로 둔다.
+ * IN 서브쿼리도 값이 maxInValues 개를 넘으면 바인딩 파라미터가 너무 많아지므로 그대로 둔다.
+ * <p>
+ * Hibernate 6.1 부터 HQL 은 from 절 서브쿼리(derived table)를 지원하지만, Querydsl JPA 5 의 from/join 은 엔티티 path 만 받아서
+ * 미리 집계한 결과와 조인하는 식으로는 바꿀 수 없다. 그래서 uncorrelated 서브쿼리는 값을 미리 구해 상수로 넣는다.
+ * 한 번 더 DB 를 왕복하는 대신 row 마다 서브쿼리를 평가하지 않는다.
+ */
+public class SubQueryInliner {
+
+    private final EntityManager em;
+    private final int maxInValues;
+    private final InliningVisitor visitor = new InliningVisitor();
+
+    public SubQueryInliner(EntityManager em) {
+        this(em, MemberJpaRepository.IN_CHUNK_SIZE);
+    }
+
+    public SubQueryInliner(EntityManager em, int maxInValues) {
+        if (maxInValues <= 0) {
+            throw new IllegalArgumentException("maxInValues must be positive: " + maxInValues);
+        }
+        this.em = em;
+        this.maxInValues = maxInValues;
+    }
+
+    /**
+     * 쿼리의 where 와 select 절에 있는 서브쿼리를 바꾼다. 쿼리를 직접 고치고 그대로 돌려준다
+     */
+    public <T> JPAQuery<T> inline(JPAQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        Predicate where = metadata.getWhere();
+        if (where != null) {
+            metadata.clearWhere();
+            metadata.addWhere(inline(where));
+        }
+        if (metadata.getProjection() != null) {
+            metadata.setProjection(inline(metadata.getProjection()));
+        }
+        return query;
+    }
+
+    public Predicate inline(Predicate predicate) {
+        return predicate == null ? null : (Predicate) predicate.accept(visitor, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Expression<T> inline(Expression<T> expression) {
+        return expression == null ? null : (Expression<T>) expression.accept(visitor, null);
+    }
+
+    private class InliningVisitor extends ReplaceVisitor<Void> {
+
+        @Override
+        public Expression<?> visit(Operation<?> expr, Void context) {
+            if ((expr.getOperator() == Ops.IN || expr.getOperator() == Ops.NOT_IN)
+                    && expr.getArg(1) instanceof SubQueryExpression<?> subQuery
+                    && isUncorrelated(subQuery)) {
+                // IN 목록은 중복이 의미 없으므로 distinct 로 바인딩할 값 수를 줄인다. 한도를 넘는지만 알면 되므로 하나 더 읽는다
+                List<?> values = new JPAQuery<>(em, subQuery.getMetadata().clone())
+                        .distinct()
+                        .limit(maxInValues + 1L)
+                        .fetch();
+                if (!values.isEmpty() && values.size() <= maxInValues) {
+                    return ExpressionUtils.predicate(expr.getOperator(),
+                            expr.getArg(0).accept(this, context),
+                            Expressions.constant(values));
+                }
+            }
+            return super.visit(expr, context);
+        }
+
+        @Override
+        public Expression<?> visit(SubQueryExpression<?> expr, Void context) {
+            if (!isUncorrelated(expr)) {
+                return expr;
+            }
+            List<?> values = new JPAQuery<>(em, expr.getMetadata().clone())
+                    .limit(2)
+                    .fetch();
+            if (values.size() != 1 || values.get(0) == null) {
+                return expr;
+            }
+            return toConstant(values.get(0));
+        }
+    }
+
+    /**
+     * 숫자는 리터럴로 넣는다. avg() 처럼 비교 대상과 타입이 다른 값(Double vs Integer)을
+     * 파라미터로 바인딩하면 Hibernate 파라미터 타입 검증에 걸리기 때문
+     */
+    private static Expression<?> toConstant(Object value) {
+        if (value instanceof Integer) {
+            return Expressions.numberTemplate(Integer.class, value.toString());
+        }
+        if (value instanceof Long) {
+            return Expressions.numberTemplate(Long.class, value + "L");
+        }
+        if (value instanceof Double d && Double.isFinite(d)) {
+            return Expressions.numberTemplate(Double.class, d.toString());
+        }
+        return Expressions.constant(value);
+    }
+
+    private static boolean isUncorrelated(SubQueryExpression<?> subQuery) {
+        QueryMetadata metadata = subQuery.getMetadata();
+        PathCollector collector = new PathCollector();
+        Set<Path<?>> declared = new HashSet<>();
+
+        for (JoinExpression join : metadata.getJoins()) {
+            Expression<?> target = join.getTarget();
+            if (target instanceof Operation<?> alias && alias.getOperator() == Ops.ALIAS) {
+                alias.getArg(0).accept(collector, null);
+                declared.add(((Path<?>) alias.getArg(1)).getRoot());
+            } else if (target instanceof Path<?> path) {
+                declared.add(path.getRoot());
+            } else {
+                return false;
+            }
+            if (join.getCondition() != null) {
+                join.getCondition().accept(collector, null);
+            }
+        }
+
+        if (metadata.getProjection() != null) {
+            metadata.getProjection().accept(collector, null);
+        }
+        if (metadata.getWhere() != null) {
+            metadata.getWhere().accept(collector, null);
+        }
+        if (metadata.getHaving() != null) {
+            metadata.getHaving().accept(collector, null);
+        }
+        for (Expression<?> groupBy : metadata.getGroupBy()) {
+            groupBy.accept(collector, null);
+        }
+        for (OrderSpecifier<?> orderBy : metadata.getOrderBy()) {
+            orderBy.getTarget().accept(collector, null);
+        }
+
+        return !collector.nested && declared.containsAll(collector.roots);
+    }
+
+    /**
+     * 서브쿼리 안에서 참조하는 path 의 root 를 모은다. 중첩 서브쿼리는 판단하지 않고 표시만 해둔다.
+     */
+    private static class PathCollector implements Visitor<Void, Void> {
+
+        private final Set<Path<?>> roots = new HashSet<>();
+        private boolean nested;
+
+        @Override
+        public Void visit(Constant<?> expr, Void context) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Void context) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Void context) {
+            if (expr.getOperator() == Ops.ALIAS) {
+                expr.getArg(0).accept(this, context);
+                return null;
+            }
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Void context) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Void context) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Void context) {
+            nested = true;
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Void context) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression<?> expression) {
+                    expression.accept(this, context);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.repository.writebehind;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * write-behind 버퍼에 쌓이는 쓰기 한 건. 회원 등록 또는 나이 변경
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberWrite {
+
+    public enum Type { INSERT, AGE_UPDATE }
+
+    private final Type type;
+    private final long sequence;
+    private final Long memberId;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+
+    public static MemberWrite insert(long sequence, String username, int age, Long teamId) {
+        return new MemberWrite(Type.INSERT, sequence, null, username, age, teamId);
+    }
+
+    public static MemberWrite ageUpdate(long sequence, Long memberId, int age) {
+        return new MemberWrite(Type.AGE_UPDATE, sequence, memberId, null, age, null);
+    }
+
+    MemberWrite withSequence(long sequence) {
+        return new MemberWrite(type, sequence, memberId, username, age, teamId);
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.demo.repository.writebehind;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.MemberWriteCheckpoint;
+import com.example.demo.entity.MemberWriteDeadLetter;
+import com.example.demo.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.example.demo.entity.QMember.member;
+
+/**
+ * Member 쓰기를 큐에 모아두었다가 batch-size 또는 flush-interval 마다 한 트랜잭션으로 반영한다.
+ * <ul>
+ *     <li>큐는 lock-free 이고 capacity 를 넘으면 offer 가 false 를 반환한다 (backpressure)</li>
+ *     <li>journal-path 가 있으면 큐에 넣기 전에 저널에 기록하고, 재시작 시 반영되지 않은 쓰기를 다시 큐에 넣는다.
+ *     반영된 sequence 는 쓰기와 같은 트랜잭션에서 {@link MemberWriteCheckpoint} 에 남기므로,
+ *     커밋 직후 저널 checkpoint 전에 죽어도 이미 커밋된 INSERT 를 다시 넣지 않는다</li>
+ *     <li>배치가 실패하면 한 건씩 다시 시도하고, 그래도 실패한 쓰기는 {@link MemberWriteDeadLetter} 로 옮긴다.
+ *     dead letter 도 남기지 못하면(DB 장애 등) 그 쓰기부터 큐 앞에 되돌려 다음 주기에 다시 시도한다</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "member.write-behind.enabled", havingValue = "true")
+public class MemberWriteBehindBuffer {
+
+    private static final long JOURNAL_COMPACT_BYTES = 1024 * 1024;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberWriteJournal journal;
+    private final String journalKey;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentLinkedDeque<MemberWrite> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public MemberWriteBehindBuffer(EntityManager em,
+                                   JPAQueryFactory queryFactory,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${member.write-behind.capacity:10000}") int capacity,
+                                   @Value("${member.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${member.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                                   @Value("${member.write-behind.journal-path:}") String journalPath,
+                                   @Value("${member.write-behind.journal-fsync:false}") boolean journalFsync) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = StringUtils.hasText(journalPath) ? new MemberWriteJournal(Path.of(journalPath), journalFsync) : null;
+        this.journalKey = journal == null ? null : Path.of(journalPath).toAbsolutePath().normalize().toString();
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (journal != null) {
+            long applied = appliedSequence();
+            sequence.set(applied);
+            // 저널에는 이미 기록되어 있으므로 큐에만 다시 넣는다
+            for (MemberWrite write : journal.readPending()) {
+                sequence.accumulateAndGet(write.getSequence(), Math::max);
+                if (write.getSequence() <= applied) {
+                    // DB 에는 커밋됐지만 저널 checkpoint 를 쓰기 전에 멈춘 쓰기
+                    continue;
+                }
+                queue.offerLast(write);
+                queued.incrementAndGet();
+            }
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "member-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread current = flusher;
+        if (current != null) {
+            LockSupport.unpark(current);
+            current.join();
+        }
+        flush();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public boolean offer(Member member) {
+        return offer(newInsert(member));
+    }
+
+    public boolean offer(Member member, long timeout, TimeUnit unit) throws InterruptedException {
+        MemberWrite write = newInsert(member);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!tryReserve()) {
+            if (System.nanoTime() >= deadline) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        enqueue(write);
+        return true;
+    }
+
+    public boolean offerAgeUpdate(Long memberId, int age) {
+        return offer(MemberWrite.ageUpdate(0, memberId, age));
+    }
+
+    /**
+     * 큐에 쌓인 쓰기를 모두 반영한다
+     */
+    public void flush() {
+        int count;
+        do {
+            count = flushBatch();
+        } while (count > 0);
+    }
+
+    public WriteBehindStats stats() {
+        long count = flushes.get();
+        return new WriteBehindStats(
+                queued.get(),
+                capacity,
+                accepted.get(),
+                rejected.get(),
+                flushed.get(),
+                deadLettered.get(),
+                count,
+                TimeUnit.NANOSECONDS.toMillis(lastFlushNanos),
+                TimeUnit.NANOSECONDS.toMillis(maxFlushNanos),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalFlushNanos.get() / count),
+                journal == null ? 0 : journal.size());
+    }
+
+    private MemberWrite newInsert(Member member) {
+        Long teamId = member.getTeam() == null ? null : member.getTeam().getId();
+        return MemberWrite.insert(0, member.getUsername(), member.getAge(), teamId);
+    }
+
+    private boolean offer(MemberWrite write) {
+        if (!tryReserve()) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        enqueue(write);
+        return true;
+    }
+
+    private boolean tryReserve() {
+        int current;
+        do {
+            current = queued.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!queued.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void enqueue(MemberWrite write) {
+        try {
+            if (journal == null) {
+                queue.offerLast(write.withSequence(sequence.incrementAndGet()));
+            } else {
+                // 저널 기록 순서와 큐 순서를 맞춘다
+                synchronized (journal) {
+                    MemberWrite journaled = write.withSequence(sequence.incrementAndGet());
+                    journal.append(journaled);
+                    queue.offerLast(journaled);
+                }
+            }
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+        accepted.incrementAndGet();
+
+        Thread current = flusher;
+        if (current != null && queued.get() >= batchSize) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            long remaining;
+            while (running && queued.get() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            try {
+                flushBatch();
+            } catch (RuntimeException e) {
+                // 저널 기록 실패 등. 다음 주기에 다시 시도한다
+            }
+        }
+    }
+
+    private synchronized int flushBatch() {
+        List<MemberWrite> batch = new ArrayList<>(batchSize);
+        MemberWrite write;
+        while (batch.size() < batchSize && (write = queue.pollFirst()) != null) {
+            batch.add(write);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int processed;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                apply(batch);
+                saveCheckpoint(batch.get(batch.size() - 1).getSequence());
+            });
+            flushed.addAndGet(batch.size());
+            processed = batch.size();
+        } catch (RuntimeException e) {
+            processed = 0;
+            while (processed < batch.size() && applyOrDeadLetter(batch.get(processed))) {
+                processed++;
+            }
+            for (int i = batch.size() - 1; i >= processed; i--) {
+                queue.offerFirst(batch.get(i));
+            }
+        }
+        recordFlush(System.nanoTime() - start);
+        queued.addAndGet(-processed);
+
+        if (journal != null && processed > 0) {
+            synchronized (journal) {
+                journal.checkpoint(batch.get(processed - 1).getSequence());
+                if (queue.isEmpty() && journal.size() > JOURNAL_COMPACT_BYTES) {
+                    journal.truncate();
+                }
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * @return 반영했거나 dead letter 로 옮겼으면 true. 둘 다 못 했으면 false 이고 checkpoint 도 그대로다
+     */
+    private boolean applyOrDeadLetter(MemberWrite write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                apply(List.of(write));
+                saveCheckpoint(write.getSequence());
+            });
+            flushed.incrementAndGet();
+            return true;
+        } catch (RuntimeException failure) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    em.persist(new MemberWriteDeadLetter(write.getSequence(), write.getType().name(), write.getMemberId(),
+                            write.getUsername(), write.getAge(), write.getTeamId(), String.valueOf(failure)));
+                    saveCheckpoint(write.getSequence());
+                });
+                deadLettered.incrementAndGet();
+                return true;
+            } catch (RuntimeException deadLetterFailure) {
+                return false;
+            }
+        }
+    }
+
+    private long appliedSequence() {
+        Long applied = transactionTemplate.execute(status -> {
+            MemberWriteCheckpoint checkpoint = em.find(MemberWriteCheckpoint.class, journalKey);
+            return checkpoint == null ? 0L : checkpoint.getAppliedSequence();
+        });
+        return applied == null ? 0 : applied;
+    }
+
+    private void saveCheckpoint(long appliedSequence) {
+        if (journal == null) {
+            return;
+        }
+        MemberWriteCheckpoint checkpoint = em.find(MemberWriteCheckpoint.class, journalKey);
+        if (checkpoint == null) {
+            em.persist(new MemberWriteCheckpoint(journalKey, appliedSequence));
+        } else {
+            checkpoint.advance(appliedSequence);
+        }
+    }
+
+    private void apply(List<MemberWrite> batch) {
+        Map<Long, Integer> ageUpdates = new LinkedHashMap<>();
+        for (MemberWrite write : batch) {
+            if (write.getType() == MemberWrite.Type.INSERT) {
+                Member newMember = new Member(write.getUsername(), write.getAge());
+                if (write.getTeamId() != null) {
+                    // 생성자로 팀을 넣으면 team.members 컬렉션을 초기화하므로 참조만 연결한다
+                    newMember.setTeam(em.getReference(Team.class, write.getTeamId()));
+                }
+                em.persist(newMember);
+            } else {
+                ageUpdates.put(write.getMemberId(), write.getAge());
+            }
+        }
+
+        if (!ageUpdates.isEmpty()) {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .where(member.id.in(ageUpdates.keySet()))
+                    .fetch();
+            for (Member findMember : members) {
+                findMember.setAge(ageUpdates.get(findMember.getId()));
+            }
+        }
+    }
+
+    private void recordFlush(long elapsedNanos) {
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsedNanos);
+        lastFlushNanos = elapsedNanos;
+        if (elapsedNanos > maxFlushNanos) {
+            maxFlushNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.repository.writebehind;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 버퍼에 들어온 쓰기를 파일 끝에 추가로 기록하는 저널.
+ * DB 에 반영된 구간은 checkpoint 레코드로 표시하고, 재시작 시 마지막 checkpoint 이후의 쓰기만 다시 읽는다.
+ * 호출하는 쪽에서 동기화한다.
+ */
+class MemberWriteJournal implements Closeable {
+
+    private static final byte INSERT = 1;
+    private static final byte AGE_UPDATE = 2;
+    private static final byte CHECKPOINT = 3;
+
+    private final Path path;
+    private final boolean fsync;
+    private FileOutputStream file;
+    private DataOutputStream out;
+
+    MemberWriteJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+
+    /**
+     * 마지막 checkpoint 이후에 기록된 쓰기. 마지막 레코드가 잘려 있으면(기록 도중 종료) 무시한다.
+     */
+    List<MemberWrite> readPending() {
+        Deque<MemberWrite> pending = new ArrayDeque<>();
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte type = in.readByte();
+                long sequence = in.readLong();
+                if (type == INSERT) {
+                    String username = in.readBoolean() ? in.readUTF() : null;
+                    int age = in.readInt();
+                    Long teamId = in.readBoolean() ? in.readLong() : null;
+                    pending.addLast(MemberWrite.insert(sequence, username, age, teamId));
+                } else if (type == AGE_UPDATE) {
+                    long memberId = in.readLong();
+                    int age = in.readInt();
+                    pending.addLast(MemberWrite.ageUpdate(sequence, memberId, age));
+                } else if (type == CHECKPOINT) {
+                    while (!pending.isEmpty() && pending.peekFirst().getSequence() <= sequence) {
+                        pending.removeFirst();
+                    }
+                } else {
+                    throw new IOException("unknown journal record type " + type + " in " + path);
+                }
+            }
+        } catch (EOFException e) {
+            return new ArrayList<>(pending);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void append(MemberWrite write) {
+        try {
+            DataOutputStream out = output();
+            if (write.getType() == MemberWrite.Type.INSERT) {
+                out.writeByte(INSERT);
+                out.writeLong(write.getSequence());
+                out.writeBoolean(write.getUsername() != null);
+                if (write.getUsername() != null) {
+                    out.writeUTF(write.getUsername());
+                }
+                out.writeInt(write.getAge());
+                out.writeBoolean(write.getTeamId() != null);
+                if (write.getTeamId() != null) {
+                    out.writeLong(write.getTeamId());
+                }
+            } else {
+                out.writeByte(AGE_UPDATE);
+                out.writeLong(write.getSequence());
+                out.writeLong(write.getMemberId());
+                out.writeInt(write.getAge());
+            }
+            sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void checkpoint(long sequence) {
+        try {
+            DataOutputStream out = output();
+            out.writeByte(CHECKPOINT);
+            out.writeLong(sequence);
+            sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 반영되지 않은 쓰기가 없을 때만 호출해야 한다
+     */
+    void truncate() {
+        try {
+            output();
+            out.flush();
+            file.getChannel().truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long size() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            file = null;
+        }
+    }
+
+    private DataOutputStream output() throws IOException {
+        if (out == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            file = new FileOutputStream(path.toFile(), true);
+            out = new DataOutputStream(new BufferedOutputStream(file));
+        }
+        return out;
+    }
+
+    private void sync() throws IOException {
+        out.flush();
+        if (fsync) {
+            file.getChannel().force(false);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.repository.writebehind;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class WriteBehindStats {
+
+    private int queueDepth;
+    private int capacity;
+    private long accepted;
+    private long rejected;
+    private long flushed;
+    // 한 건씩 다시 시도해도 실패해서 MemberWriteDeadLetter 로 옮긴 수
+    private long deadLettered;
+    private long flushes;
+    private long lastFlushMillis;
+    private long maxFlushMillis;
+    private long averageFlushMillis;
+    private long journalBytes;
+
+}
@@ -0,0 +1,22 @@
+-- 샤드마다 같은 스키마. TEAM 은 모든 샤드에 복제되고 MEMBER 는 TEAM_ID 로 나뉜다
+CREATE TABLE IF NOT EXISTS TEAM (
+    ID BIGINT NOT NULL PRIMARY KEY,
+    NAME VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS MEMBER (
+    MEMBER_ID BIGINT NOT NULL PRIMARY KEY,
+    AGE INTEGER NOT NULL,
+    TEAM_ID BIGINT,
+    USERNAME VARCHAR(255),
+    USERNAME_LOWER VARCHAR(255) GENERATED ALWAYS AS (LOWER(USERNAME)),
+    CONSTRAINT FK_MEMBER_TEAM FOREIGN KEY (TEAM_ID) REFERENCES TEAM (ID)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_MEMBER_TEAM_ID ON MEMBER (TEAM_ID);
+CREATE INDEX IF NOT EXISTS IDX_TEAM_NAME ON TEAM (NAME);
+CREATE INDEX IF NOT EXISTS IDX_MEMBER_USERNAME ON MEMBER (USERNAME);
+CREATE INDEX IF NOT EXISTS IDX_MEMBER_USERNAME_LOWER ON MEMBER (USERNAME_LOWER);
+
+CREATE SEQUENCE IF NOT EXISTS MEMBER_SEQ;
+CREATE SEQUENCE IF NOT EXISTS TEAM_SEQ;
@@ -0,0 +1,105 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.limit.GradientConcurrencyLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "member.concurrency-limit.enabled=true",
+        "member.concurrency-limit.initial-limit=4",
+        "member.concurrency-limit.min-limit=4",
+        "member.concurrency-limit.max-limit=4",
+        "spring.datasource.hikari.maximum-pool-size=1"
+})
+@AutoConfigureMockMvc
+class ConcurrencyLimitFilterTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired GradientConcurrencyLimiter memberSearchLimiter;
+    @Autowired DataSource dataSource;
+
+    int held;
+
+    @AfterEach
+    public void after(){
+        for (; held > 0; held--) {
+            memberSearchLimiter.release(0);
+        }
+    }
+
+    @Test
+    public void overLimitIsServiceUnavailable() throws Exception {
+        while (memberSearchLimiter.tryAcquire()) {
+            held++;
+        }
+        assertThat(held).isEqualTo(4);
+
+        mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(get("/v2/members"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/v1/members/stats"))
+                .andExpect(status().isServiceUnavailable());
+
+        // 통계는 한도가 찼을 때 보려고 부르는 것이므로 막지 않는다
+        mockMvc.perform(get("/v1/members/concurrency-limit/stats"))
+                .andExpect(status().isOk());
+
+        after();
+        mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isOk());
+        assertThat(memberSearchLimiter.stats().getInFlight()).isZero();
+    }
+
+    /**
+     * 풀의 커넥션 하나를 다른 스레드가 잡고 있는 동안 검색하면, 커넥션을 기다린 시간이 RTT 샘플에 들어간다
+     */
+    @Test
+    public void poolWaitCountsAsLatency() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                holding.countDown();
+                Thread.sleep(300);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        holding.await();
+
+        mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isOk());
+        holder.join();
+
+        assertThat(memberSearchLimiter.stats().getLastRttMs()).isGreaterThanOrEqualTo(200.0);
+    }
+
+    @Test
+    public void pathPrefixes(){
+        List<String> prefixes = List.of("/v1/members", "/v2/members/");
+
+        assertThat(ConcurrencyLimitFilter.matches(prefixes, "/v1/members")).isTrue();
+        assertThat(ConcurrencyLimitFilter.matches(prefixes, "/v1/members/")).isTrue();
+        assertThat(ConcurrencyLimitFilter.matches(prefixes, "/v1/members/by-ids")).isTrue();
+        assertThat(ConcurrencyLimitFilter.matches(prefixes, "/v2/members/stats")).isTrue();
+        assertThat(ConcurrencyLimitFilter.matches(prefixes, "/v1/membersX")).isFalse();
+        assertThat(ConcurrencyLimitFilter.matches(prefixes, "/v1/teams")).isFalse();
+    }
+}
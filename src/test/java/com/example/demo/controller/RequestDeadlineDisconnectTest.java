@@ -0,0 +1,113 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.QMember;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.deadline.RunningStatements;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * 비동기 요청에서 클라이언트 연결이 끊기면(컨테이너의 AsyncListener.onError) 작업 스레드에서 실행 중인 쿼리가 취소되는지 본다.
+ * 쿼리는 다른 스레드에서 돌므로 데이터를 커밋하고 끝나면 지운다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(RequestDeadlineDisconnectTest.SlowCountController.class)
+class RequestDeadlineDisconnectTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired QueryDeadlines queryDeadlines;
+    @Autowired RunningStatements runningStatements;
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'disconnect%'").executeUpdate());
+    }
+
+    @Test
+    public void disconnectCancelsRunningQuery() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 500; i++) {
+                em.persist(new Member("disconnect" + i, i));
+            }
+        });
+        long cancelledBefore = queryDeadlines.stats().getCancelled();
+
+        MvcResult result = mockMvc.perform(get("/test/deadline/slow-count"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(await(() -> runningStatements.size() > 0)).as("query started").isTrue();
+
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Connection reset by peer")));
+        }
+
+        assertThat(await(() -> queryDeadlines.stats().getCancelled() > cancelledBefore)).as("statement cancelled").isTrue();
+        assertThat(queryDeadlines.stats().getCancelled()).isEqualTo(cancelledBefore + 1);
+        assertThat(await(() -> runningStatements.size() == 0 && queryDeadlines.stats().getInFlight() == 0)).isTrue();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long until = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > until) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @RestController
+    static class SlowCountController {
+
+        private final JPAQueryFactory queryFactory;
+        private final QueryDeadlines queryDeadlines;
+
+        SlowCountController(JPAQueryFactory queryFactory, QueryDeadlines queryDeadlines) {
+            this.queryFactory = queryFactory;
+            this.queryDeadlines = queryDeadlines;
+        }
+
+        /**
+         * 회원 500 명의 3 중 곱집합을 세서 몇 초 이상 걸리는 쿼리
+         */
+        @GetMapping("/test/deadline/slow-count")
+        public Callable<Long> slowCount() {
+            QMember m2 = new QMember("m2");
+            QMember m3 = new QMember("m3");
+            return () -> queryDeadlines.apply(queryFactory
+                            .select(QMember.member.count())
+                            .from(QMember.member, m2, m3)
+                            .where(QMember.member.age.add(m2.age).ne(m3.age)))
+                    .fetchOne();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.deadline.RunningStatements;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestDeadlineFilterTest {
+
+    QueryDeadlines queryDeadlines = new QueryDeadlines(new RunningStatements(), 10_000L, 30_000L, 50L);
+    RequestDeadlineFilter filter = new RequestDeadlineFilter(queryDeadlines);
+
+    @Test
+    public void timeoutIsGatewayTimeout() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                throw new QueryTimeoutException("statement cancelled");
+            }
+        });
+
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(queryDeadlines.stats().getTimedOut()).isEqualTo(1);
+        assertThat(queryDeadlines.stats().getInFlight()).isZero();
+        assertThat(QueryDeadlines.current()).isNull();
+    }
+
+    @Test
+    public void headerTimeoutIsBound() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "1500");
+        AtomicLong seen = new AtomicLong();
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                seen.set(QueryDeadlines.current().getTimeoutMillis());
+            }
+        });
+
+        assertThat(seen.get()).isEqualTo(1500);
+        assertThat(QueryDeadlines.current()).isNull();
+    }
+
+    @Test
+    public void badHeaderIsBadRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "soon");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(queryDeadlines.stats().getInFlight()).isZero();
+    }
+
+    @Test
+    public void otherFailuresPropagate() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                throw new IllegalStateException("boom");
+            }
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(queryDeadlines.stats().getTimedOut()).isZero();
+        assertThat(queryDeadlines.stats().getInFlight()).isZero();
+    }
+}
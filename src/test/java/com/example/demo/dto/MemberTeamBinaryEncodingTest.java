@@ -0,0 +1,70 @@
+package com.example.demo.dto;
+
+import com.example.demo.config.BinaryEncodingConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberTeamBinaryEncodingTest {
+
+    ObjectMapper json = new ObjectMapper();
+    ObjectMapper smile = new ObjectMapper(BinaryEncodingConfig.smileFactory()).registerModule(BinaryEncodingConfig.binaryModule());
+    ObjectMapper cbor = new ObjectMapper(BinaryEncodingConfig.cborFactory()).registerModule(BinaryEncodingConfig.binaryModule());
+
+    @Test
+    public void binaryMatchesJson() throws Exception {
+        MemberTeamRows rows = rows(1_000);
+        List<MemberTeamDto> dtos = new ArrayList<>(rows);
+
+        assertThat(smile.readTree(smile.writeValueAsBytes(rows))).isEqualTo(json.readTree(json.writeValueAsBytes(dtos)));
+        assertThat(cbor.readTree(cbor.writeValueAsBytes(rows))).isEqualTo(json.readTree(json.writeValueAsBytes(dtos)));
+        assertThat(smile.readTree(smile.writeValueAsBytes(dtos))).isEqualTo(json.readTree(json.writeValueAsBytes(rows)));
+        assertThat(cbor.readTree(cbor.writeValueAsBytes(dtos))).isEqualTo(json.readTree(json.writeValueAsBytes(rows)));
+    }
+
+    @Test
+    public void dtoSerializerMatchesDefault() throws Exception {
+        ObjectMapper withSerializer = new ObjectMapper().registerModule(BinaryEncodingConfig.binaryModule());
+        for (MemberTeamDto dto : List.of(
+                new MemberTeamDto(1L, "member1", 10, null, null),
+                new MemberTeamDto(2L, "member2", 20, 3L, "teamA"))) {
+            assertThat(withSerializer.writeValueAsString(dto)).isEqualTo(json.writeValueAsString(dto));
+        }
+        assertThat(json.writeValueAsString(new MemberTeamDto(1L, "member1", 10, null, null)))
+                .isEqualTo("{\"memberId\":1,\"username\":\"member1\",\"age\":10,\"teamId\":null,\"teamName\":null}");
+    }
+
+    @Test
+    public void dtoSerializerIsOnlyOnBinaryMappers() throws Exception {
+        MemberTeamDto dto = new MemberTeamDto(1L, "member1", 10, 2L, "teamA");
+        assertThat(json.getSerializerProviderInstance().findValueSerializer(MemberTeamDto.class))
+                .isNotInstanceOf(MemberTeamDtoSerializer.class);
+        assertThat(smile.getSerializerProviderInstance().findValueSerializer(MemberTeamDto.class))
+                .isInstanceOf(MemberTeamDtoSerializer.class);
+        assertThat(cbor.getSerializerProviderInstance().findValueSerializer(MemberTeamDto.class))
+                .isInstanceOf(MemberTeamDtoSerializer.class);
+        assertThat(smile.readTree(smile.writeValueAsBytes(dto))).isEqualTo(json.readTree(json.writeValueAsBytes(dto)));
+    }
+
+    @Test
+    public void binaryIsSmaller() throws Exception {
+        MemberTeamRows rows = rows(1_000);
+        int jsonBytes = json.writeValueAsBytes(rows).length;
+
+        assertThat(smile.writeValueAsBytes(rows).length).isLessThan(jsonBytes * 6 / 10);
+        assertThat(cbor.writeValueAsBytes(rows).length).isLessThan(jsonBytes);
+    }
+
+    private static MemberTeamRows rows(int size) {
+        MemberTeamRows rows = new MemberTeamRows(MemberTeamField.of(null), size);
+        for (int i = 0; i < size; i++) {
+            long teamId = i % 10;
+            rows.addRow((long) i, "member" + i, i % 100, teamId == 0 ? null : teamId, teamId == 0 ? null : "team" + teamId);
+        }
+        return rows;
+    }
+}
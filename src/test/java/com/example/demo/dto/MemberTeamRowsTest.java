@@ -0,0 +1,46 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberTeamRowsTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void allFieldsMatchDtoSerialization() throws Exception {
+        MemberTeamRows rows = new MemberTeamRows(MemberTeamField.of(null), 1);
+        rows.addRow(1L, "member1", 10, 2L, "teamA");
+        rows.addRow(3L, "member2", 20, null, null);
+
+        List<MemberTeamDto> dtos = List.of(
+                new MemberTeamDto(1L, "member1", 10, 2L, "teamA"),
+                new MemberTeamDto(3L, "member2", 20, null, null));
+
+        assertThat(rows).containsExactlyElementsOf(dtos);
+        assertThat(objectMapper.readTree(objectMapper.writeValueAsString(rows)))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(dtos)));
+    }
+
+    @Test
+    public void writesOnlySelectedFields() throws Exception {
+        MemberTeamRows rows = new MemberTeamRows(EnumSet.of(MemberTeamField.USERNAME, MemberTeamField.TEAM_ID), 1);
+        rows.addRow(1L, "member1", 10, 2L, "teamA");
+        rows.addRow(3L, "member2", 20, null, null);
+
+        assertThat(objectMapper.writeValueAsString(rows))
+                .isEqualTo("[{\"username\":\"member1\",\"teamId\":2},{\"username\":\"member2\",\"teamId\":null}]");
+    }
+
+    @Test
+    public void unknownField() {
+        assertThatThrownBy(() -> MemberTeamField.of(List.of("username", "password")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
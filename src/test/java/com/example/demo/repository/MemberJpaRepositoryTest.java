@@ -2,6 +2,8 @@ package com.example.demo.repository;
 
 import com.example.demo.dto.MemberSearchCondition;
 import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.MemberTeamField;
+import com.example.demo.dto.MemberTeamRows;
 import com.example.demo.entity.Member;
 import com.example.demo.entity.Team;
 import jakarta.persistence.EntityManager;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -158,4 +161,34 @@ class MemberJpaRepositoryTest {
         assertThat(results).extracting("username").containsExactly("member3","member4");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchRows(){
+        Team teamA = new Team("rowsTeamA");
+        Team teamB = new Team("rowsTeamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("rowsMember1", 10, teamA);
+        Member member2 = new Member("rowsMember2", 20, teamA);
+        Member member3 = new Member("rowsMember3", 30, teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("rowsTeamA");
+
+        MemberTeamRows all = memberJpaRepository.searchRows(condition, MemberTeamField.of(null));
+        assertThat(all).containsExactlyElementsOf(memberJpaRepository.search(condition));
+
+        MemberTeamRows partial = memberJpaRepository.searchRows(condition,
+                EnumSet.of(MemberTeamField.USERNAME, MemberTeamField.AGE));
+        assertThat(partial).extracting("username").containsExactly("rowsMember1", "rowsMember2");
+        assertThat(partial).extracting("age").containsExactly(10, 20);
+        assertThat(partial).extracting("teamName").containsOnlyNulls();
+        assertThat(partial.getMemberId(0)).isNull();
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 동시 count 는 별도 커넥션에서 실행되므로 테스트 데이터를 커밋해두고 끝나면 지운다
+ */
+@SpringBootTest
+class MemberRepositoryConcurrentCountTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberRepository memberRepository;
+
+    MemberSearchCondition condition;
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamConcurrent = new Team("teamConcurrent");
+            em.persist(teamConcurrent);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("concurrentMember" + i, 20 + i, teamConcurrent));
+            }
+        });
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("teamConcurrent");
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name = :name)")
+                    .setParameter("name", "teamConcurrent")
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.name = :name")
+                    .setParameter("name", "teamConcurrent")
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void concurrentCount(){
+        Page<MemberTeamDto> sequential = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), PageCountMode.SEQUENTIAL);
+        Page<MemberTeamDto> concurrent = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), PageCountMode.CONCURRENT);
+
+        assertThat(concurrent.getTotalElements()).isEqualTo(5);
+        assertThat(concurrent.getTotalElements()).isEqualTo(sequential.getTotalElements());
+        assertThat(concurrent.getContent()).isEqualTo(sequential.getContent());
+    }
+
+    @Test
+    public void concurrentCountLastPage(){
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10), PageCountMode.CONCURRENT);
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+}
@@ -9,6 +9,8 @@ import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -92,5 +94,25 @@ class MemberRepositoryTest {
         assertThat(results).extracting("username").containsExactly("member3","member4");
     }
 
+    @Test
+    public void searchSlice(){
+        Team teamSlice = new Team("teamSlice");
+        em.persist(teamSlice);
+
+        for (int i = 0; i < 4; i++) {
+            em.persist(new Member("sliceMember" + i, 10 + i, teamSlice));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSlice");
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+        assertThat(first.getContent()).hasSize(3);
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.hasNext()).isFalse();
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.QMemberTeamDto;
+import com.example.demo.dto.UsernameMatch;
+import org.junit.jupiter.api.Test;
+
+import static com.example.demo.entity.QMember.member;
+import static com.example.demo.entity.QTeam.team;
+import static com.example.demo.repository.MemberSearchExpressions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchExpressionsTest {
+
+    @Test
+    public void sharedProjectionMatchesFreshOne(){
+        assertThat(MEMBER_TEAM_DTO).isEqualTo(freshProjection());
+        assertThat(MEMBER_COUNT).isEqualTo(member.count());
+    }
+
+    @Test
+    public void emptyConditionsAreSkipped(){
+        assertThat(usernameEq(" ", UsernameMatch.EXACT)).isNull();
+        assertThat(teamNameEq(null)).isNull();
+        assertThat(ageGoe(null)).isNull();
+        assertThat(ageLoe(null)).isNull();
+        assertThat(usernameEq("member1", null)).isEqualTo(member.username.eq("member1"));
+    }
+
+    private static QMemberTeamDto freshProjection() {
+        return new QMemberTeamDto(
+                member.id.as("memberId"),
+                member.username,
+                member.age,
+                team.id.as("teamId"),
+                team.name.as("teamName"));
+    }
+}
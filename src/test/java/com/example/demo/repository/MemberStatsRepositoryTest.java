@@ -0,0 +1,94 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.MemberAgeStats;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberStatsRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberStatsRepository memberStatsRepository;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("statsTeamA");
+        Team teamB = new Team("statsTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("statsMember1", 10, teamA));
+        em.persist(new Member("statsMember2", 15, teamA));
+        em.persist(new Member("statsMember3", 25, teamA));
+        em.persist(new Member("statsMember4", 45, teamB));
+    }
+
+    @Test
+    public void teamAgeStats(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("statsTeamA");
+
+        MemberAgeStats stats = memberStatsRepository.teamAgeStats(condition, List.of(0, 20, 40), false);
+
+        assertThat(stats.getRows()).isEqualTo(2);
+        assertThat(stats.getGrouping()).containsExactly(MemberAgeStats.DETAIL, MemberAgeStats.DETAIL);
+        assertThat(stats.getTeamName()).containsExactly("statsTeamA", "statsTeamA");
+        assertThat(stats.getAgeBucket()).containsExactly(0, 20);
+        assertThat(stats.getCount()).containsExactly(2L, 1L);
+        assertThat(stats.getSumAge()).containsExactly(25L, 25L);
+        assertThat(stats.getAvgAge()).containsExactly(12.5, 25.0);
+        assertThat(stats.getMinAge()).containsExactly(10, 25);
+        assertThat(stats.getMaxAge()).containsExactly(15, 25);
+    }
+
+    @Test
+    public void rollup(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("statsTeamB");
+
+        MemberAgeStats stats = memberStatsRepository.teamAgeStats(condition, List.of(0, 20, 40), true);
+
+        assertThat(stats.getGrouping())
+                .containsExactly(MemberAgeStats.DETAIL, MemberAgeStats.TEAM_SUBTOTAL, MemberAgeStats.GRAND_TOTAL);
+        assertThat(stats.getAgeBucket()).containsExactly(40, null, null);
+        assertThat(stats.getCount()).containsExactly(1L, 1L, 1L);
+
+        // 조건이 없으면 전체 합계는 전체 회원 수와 같다
+        MemberAgeStats all = memberStatsRepository.teamAgeStats(new MemberSearchCondition(), MemberStatsRepository.DEFAULT_BUCKET_BOUNDS, true);
+        int last = all.getRows() - 1;
+        assertThat(all.getGrouping().get(last)).isEqualTo(MemberAgeStats.GRAND_TOTAL);
+        assertThat(all.getCount().get(last)).isEqualTo(memberRepository.count());
+
+        long detailCount = 0;
+        long subtotalCount = 0;
+        for (int i = 0; i < all.getRows(); i++) {
+            if (all.getGrouping().get(i) == MemberAgeStats.DETAIL) {
+                detailCount += all.getCount().get(i);
+            } else if (all.getGrouping().get(i) == MemberAgeStats.TEAM_SUBTOTAL) {
+                subtotalCount += all.getCount().get(i);
+            }
+        }
+        assertThat(detailCount).isEqualTo(memberRepository.count());
+        assertThat(subtotalCount).isEqualTo(memberRepository.count());
+    }
+
+    @Test
+    public void invalidBuckets(){
+        assertThatThrownBy(() -> memberStatsRepository.teamAgeStats(new MemberSearchCondition(), List.of(20, 10), false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
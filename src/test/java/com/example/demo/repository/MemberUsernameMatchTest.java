@@ -0,0 +1,86 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.UsernameMatch;
+import com.example.demo.entity.Member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.example.demo.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberUsernameMatchTest {
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void before(){
+        em.persist(new Member("MatchAlice", 10));
+        em.persist(new Member("matchalice", 20));
+        em.persist(new Member("MatchAlbert", 30));
+        em.persist(new Member("matchBob", 40));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void matchModes(){
+        assertThat(search("MatchAlice", UsernameMatch.EXACT)).containsExactly(10);
+        assertThat(search("matchalice", UsernameMatch.IGNORE_CASE)).containsExactly(10, 20);
+        assertThat(search("MatchAl", UsernameMatch.PREFIX)).containsExactly(10, 30);
+        assertThat(search("MATCHAL", UsernameMatch.PREFIX_IGNORE_CASE)).containsExactly(10, 20, 30);
+
+        // LIKE 특수문자는 그대로 비교한다
+        assertThat(search("match%", UsernameMatch.PREFIX_IGNORE_CASE)).isEmpty();
+    }
+
+    @Test
+    public void usernameLowerFollowsBulkUpdate(){
+        memberJpaRepository.bulkUpdate(member.username.eq("matchBob"),
+                clause -> clause.set(member.username, "MatchROBERT"));
+
+        assertThat(queryFactory.select(member.usernameLower).from(member).where(member.age.eq(40)).fetchOne())
+                .isEqualTo("matchrobert");
+        assertThat(search("matchrob", UsernameMatch.PREFIX_IGNORE_CASE)).containsExactly(40);
+    }
+
+    @Test
+    public void explainUsesUsernameLowerIndex(){
+        String prefixPlan = explain("select m.member_id from member m where m.username_lower like 'matchal%' escape '!'");
+        assertThat(prefixPlan).containsIgnoringCase("idx_member_username_lower").doesNotContain("tableScan");
+
+        String exactPlan = explain("select m.member_id from member m where m.username_lower = 'matchalice'");
+        assertThat(exactPlan).containsIgnoringCase("idx_member_username_lower").doesNotContain("tableScan");
+
+        // 함수로 감싸면 인덱스를 못 탄다
+        String lowerPlan = explain("select m.member_id from member m where lower(m.username) = 'matchalice'");
+        assertThat(lowerPlan).contains("tableScan");
+    }
+
+    private List<Integer> search(String username, UsernameMatch match) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(match);
+        return memberRepository.search(condition).stream()
+                .map(MemberTeamDto::getAge)
+                .sorted()
+                .toList();
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(em.createNativeQuery("explain " + sql).getSingleResult());
+    }
+}
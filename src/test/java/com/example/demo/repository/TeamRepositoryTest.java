@@ -0,0 +1,91 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired TeamRepository teamRepository;
+
+    @Test
+    public void countWithoutLoadingMembers(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team empty = new Team("empty");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(empty);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.flush();
+        em.clear();
+
+        Team findTeam = em.find(Team.class, teamA.getId());
+        assertThat(teamRepository.countMembers(teamA.getId())).isEqualTo(2);
+        assertThat(teamRepository.containsMember(teamA.getId(), member1.getId())).isTrue();
+        assertThat(teamRepository.containsMember(teamB.getId(), member1.getId())).isFalse();
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+
+        Map<Long, Long> counts = teamRepository.countMembersByTeamIds(
+                List.of(teamA.getId(), teamB.getId(), empty.getId(), -1L, teamA.getId()));
+        assertThat(counts).containsExactly(
+                Map.entry(teamA.getId(), 2L),
+                Map.entry(teamB.getId(), 1L),
+                Map.entry(empty.getId(), 0L),
+                Map.entry(-1L, 0L));
+    }
+
+    @Test
+    public void nullIdIsEmpty(){
+        Team team = new Team("teamA");
+        em.persist(team);
+        Member member = new Member("member1", 10, team);
+        em.persist(member);
+        em.flush();
+
+        assertThat(teamRepository.countMembers(null)).isZero();
+        assertThat(teamRepository.containsMember(null, member.getId())).isFalse();
+        assertThat(teamRepository.containsMember(team.getId(), null)).isFalse();
+
+        List<Long> teamIds = new ArrayList<>();
+        teamIds.add(null);
+        teamIds.add(team.getId());
+        assertThat(teamRepository.countMembersByTeamIds(teamIds))
+                .containsExactly(Map.entry(team.getId(), 1L));
+    }
+
+    @Test
+    public void countMembersAcrossChunks(){
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < MemberJpaRepository.IN_CHUNK_SIZE + 10; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teamIds.add(team.getId());
+            if (i % 100 == 0) {
+                em.persist(new Member("member" + i, i, team));
+            }
+        }
+        em.flush();
+
+        Map<Long, Long> counts = teamRepository.countMembersByTeamIds(teamIds);
+        assertThat(counts).hasSize(teamIds.size());
+        assertThat(counts.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(11);
+    }
+}
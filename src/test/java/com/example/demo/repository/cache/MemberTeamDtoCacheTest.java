@@ -0,0 +1,131 @@
+package com.example.demo.repository.cache;
+
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 무효화는 커밋된 변경만 보므로 테스트 데이터를 커밋해두고 끝나면 지운다
+ */
+@SpringBootTest
+class MemberTeamDtoCacheTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberTeamDtoCache cache;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    Long teamId;
+    List<Long> ids;
+
+    @BeforeEach
+    public void before(){
+        ids = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("cacheTeam");
+            em.persist(team);
+            teamId = team.getId();
+            for (int i = 0; i < 3; i++) {
+                Member cached = new Member("cacheMember" + i, 10 + i);
+                cached.setTeam(team);
+                em.persist(cached);
+                ids.add(cached.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        RequestContextHolder.resetRequestAttributes();
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'cacheMember%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'cacheTeam%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void multiGetLoadsMissesOnce(){
+        MemberTeamDtoCacheStats before = cache.stats();
+
+        List<MemberTeamDto> first = cache.findMemberTeamDtosByIds(List.of(ids.get(2), ids.get(0), ids.get(1), ids.get(0)));
+        assertThat(first).extracting("memberId").containsExactly(ids.get(2), ids.get(0), ids.get(1));
+        assertThat(first).extracting("teamName").containsOnly("cacheTeam");
+        assertThat(cache.stats().getMisses()).isEqualTo(before.getMisses() + 3);
+        assertThat(cache.stats().getLoads()).isEqualTo(before.getLoads() + 1);
+
+        List<MemberTeamDto> second = cache.findMemberTeamDtosByIds(ids);
+        assertThat(second).extracting("username").containsExactly("cacheMember0", "cacheMember1", "cacheMember2");
+        assertThat(cache.stats().getSharedHits()).isEqualTo(before.getSharedHits() + 3);
+        assertThat(cache.stats().getLoads()).isEqualTo(before.getLoads() + 1);
+    }
+
+    @Test
+    public void requestTier(){
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        MemberTeamDtoCacheStats before = cache.stats();
+
+        MemberTeamDto first = cache.findMemberTeamDtosByIds(List.of(ids.get(0))).get(0);
+        MemberTeamDto second = cache.findMemberTeamDtosByIds(List.of(ids.get(0))).get(0);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.stats().getRequestHits()).isEqualTo(before.getRequestHits() + 1);
+    }
+
+    @Test
+    public void invalidateOnSave(){
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        cache.findMemberTeamDtosByIds(ids);
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, ids.get(0)).setAge(99));
+
+        assertThat(cache.findMemberTeamDtosByIds(List.of(ids.get(0)))).extracting("age").containsExactly(99);
+        assertThat(cache.findMemberTeamDtosByIds(List.of(ids.get(1)))).extracting("age").containsExactly(11);
+    }
+
+    @Test
+    public void invalidateOnBulkUpdate(){
+        cache.findMemberTeamDtosByIds(ids);
+
+        memberJpaRepository.bulkUpdate(member.username.startsWith("cacheMember"),
+                clause -> clause.set(member.age, member.age.add(100)));
+
+        assertThat(cache.findMemberTeamDtosByIds(ids)).extracting("age").containsExactly(110, 111, 112);
+    }
+
+    @Test
+    public void invalidateOnTeamRename(){
+        cache.findMemberTeamDtosByIds(ids);
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId).setName("cacheTeamRenamed"));
+
+        assertThat(cache.findMemberTeamDtosByIds(ids)).extracting("teamName").containsOnly("cacheTeamRenamed");
+    }
+
+    @Test
+    public void chunkedLoad(){
+        List<Long> manyIds = new ArrayList<>();
+        for (long i = 0; i < MemberJpaRepository.IN_CHUNK_SIZE * 2 + 500; i++) {
+            manyIds.add(-1 - i);
+        }
+        manyIds.addAll(ids);
+
+        assertThat(cache.findMemberTeamDtosByIds(manyIds)).extracting("memberId").containsExactlyElementsOf(ids);
+    }
+}
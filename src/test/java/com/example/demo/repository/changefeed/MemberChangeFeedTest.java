@@ -0,0 +1,175 @@
+package com.example.demo.repository.changefeed;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.example.demo.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 변경은 커밋된 뒤에만 피드에 들어가므로 트랜잭션을 직접 커밋하고 끝나면 지운다
+ */
+@SpringBootTest
+class MemberChangeFeedTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberChangeFeed feed;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    ChangeFeedSubscription subscription;
+
+    @BeforeEach
+    public void before(){
+        subscription = feed.subscribe("test-" + System.nanoTime());
+    }
+
+    @AfterEach
+    public void after(){
+        feed.unsubscribe(subscription.getConsumerId());
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'feed%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'feed%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void transactionIsOneBatch(){
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = new Team("feedTeamA");
+            em.persist(team);
+            Member member1 = new Member("feedMember1", 10, team);
+            em.persist(member1);
+            return new Long[]{team.getId(), member1.getId()};
+        });
+
+        ChangeBatch batch = poll();
+        assertThat(feed.stats().getAppendedBatches()).isPositive();
+        assertThat(batch.isGap()).isFalse();
+        assertThat(batch.getEvents()).hasSize(2);
+        assertThat(batch.getEvents().get(0)).isInstanceOf(TeamChanged.class)
+                .extracting("type", "teamId").containsExactly(ChangeType.INSERT, ids[0]);
+        assertThat(batch.getEvents().get(1)).isInstanceOf(MemberChanged.class)
+                .extracting("type", "memberId", "teamId").containsExactly(ChangeType.INSERT, ids[1], ids[0]);
+
+        // 커밋한 뒤에는 같은 배치를 다시 받지 않는다
+        assertThat(poll().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void updateAndTeamChange(){
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("feedTeamA");
+            Team teamB = new Team("feedTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("feedMember1", 10);
+            member1.setTeam(teamA);
+            em.persist(member1);
+            return new Long[]{teamA.getId(), teamB.getId(), member1.getId()};
+        });
+        poll();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, ids[2]);
+            member1.setAge(11);
+            member1.setTeam(em.getReference(Team.class, ids[1]));
+        });
+
+        MemberChanged changed = (MemberChanged) poll().getEvents().get(0);
+        assertThat(changed.getType()).isEqualTo(ChangeType.UPDATE);
+        assertThat(changed.getTeamId()).isEqualTo(ids[1]);
+        assertThat(changed.getPreviousTeamId()).isEqualTo(ids[0]);
+        assertThat(changed.isTeamChanged()).isTrue();
+    }
+
+    @Test
+    public void rollbackIsNotPublished(){
+        long latest = feed.latestOffset();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("feedMember1", 10));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(feed.latestOffset()).isEqualTo(latest);
+    }
+
+    @Test
+    public void bulkUpdateAndDelete(){
+        List<Long> ids = transactionTemplate.execute(status -> {
+            Member member1 = new Member("feedMember1", 10);
+            Member member2 = new Member("feedMember2", 20);
+            Member member3 = new Member("feedMember3", 30);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(member3);
+            return List.of(member1.getId(), member2.getId(), member3.getId());
+        });
+        poll();
+
+        long updated = memberJpaRepository.bulkUpdate(
+                member.username.startsWith("feed").and(member.age.lt(25)),
+                clause -> clause.set(member.age, member.age.add(1)));
+        assertThat(updated).isEqualTo(2);
+        assertThat(poll().getEvents())
+                .extracting("type", "memberId")
+                .containsExactly(tuple(ChangeType.UPDATE, ids.get(0)), tuple(ChangeType.UPDATE, ids.get(1)));
+
+        long deleted = memberJpaRepository.bulkDelete(member.username.eq("feedMember3"));
+        assertThat(deleted).isEqualTo(1);
+        assertThat(poll().getEvents())
+                .extracting("type", "memberId")
+                .containsExactly(tuple(ChangeType.DELETE, ids.get(2)));
+    }
+
+    @Test
+    public void consumersKeepTheirOwnOffset(){
+        ChangeFeedSubscription other = feed.subscribe(subscription.getConsumerId() + "-other");
+        try {
+            transactionTemplate.executeWithoutResult(status -> em.persist(new Member("feedMember1", 10)));
+
+            assertThat(poll().getEvents()).hasSize(1);
+            assertThat(other.poll(100).getEvents()).hasSize(1);
+            assertThat(feed.subscribe(other.getConsumerId())).isSameAs(other);
+        } finally {
+            feed.unsubscribe(other.getConsumerId());
+        }
+    }
+
+    @Test
+    public void gapWhenConsumerFallsBehind(){
+        MemberChangeFeed small = new MemberChangeFeed(3);
+        ChangeFeedSubscription slow = small.subscribe("slow");
+
+        small.append(List.of(new TeamChanged(ChangeType.INSERT, 1L), new TeamChanged(ChangeType.INSERT, 2L)));
+        small.append(List.of(new TeamChanged(ChangeType.INSERT, 3L), new TeamChanged(ChangeType.INSERT, 4L)));
+
+        ChangeBatch batch = slow.poll(10);
+        assertThat(batch.isGap()).isTrue();
+        assertThat(batch.getFromOffset()).isEqualTo(1);
+        assertThat(batch.getNextOffset()).isEqualTo(4);
+        assertThat(batch.getEvents()).extracting("teamId").containsExactly(2L, 3L, 4L);
+
+        slow.commit(batch);
+        assertThat(slow.poll(10).isEmpty()).isTrue();
+    }
+
+    private ChangeBatch poll() {
+        ChangeBatch batch = subscription.poll(1000);
+        subscription.commit(batch);
+        return batch;
+    }
+}
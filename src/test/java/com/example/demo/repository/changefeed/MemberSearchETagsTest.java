@@ -0,0 +1,113 @@
+package com.example.demo.repository.changefeed;
+
+import com.example.demo.controller.MemberController;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamField;
+import com.example.demo.dto.MemberTeamRows;
+import com.example.demo.dto.UsernameMatch;
+import com.example.demo.entity.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 버전은 커밋된 뒤에만 바뀌므로 트랜잭션을 직접 커밋하고 끝나면 지운다
+ */
+@SpringBootTest
+class MemberSearchETagsTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberSearchETags memberSearchETags;
+    @Autowired MemberController memberController;
+    @Autowired MemberChangeFeed memberChangeFeed;
+
+    Set<MemberTeamField> allFields = MemberTeamField.of(null);
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'etag%'").executeUpdate());
+    }
+
+    @Test
+    public void equivalentConditionsShareETag(){
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUsername(" ");
+        blank.setTeamName("");
+        blank.setUsernameMatch(UsernameMatch.CONTAINS);
+
+        MemberSearchCondition upper = new MemberSearchCondition();
+        upper.setUsername("ETAG");
+        upper.setUsernameMatch(UsernameMatch.IGNORE_CASE);
+        MemberSearchCondition lower = new MemberSearchCondition();
+        lower.setUsername("etag");
+        lower.setUsernameMatch(UsernameMatch.IGNORE_CASE);
+        MemberSearchCondition exact = new MemberSearchCondition();
+        exact.setUsername("ETAG");
+
+        assertThat(etag(blank)).isEqualTo(etag(new MemberSearchCondition()));
+        assertThat(etag(upper)).isEqualTo(etag(lower));
+        assertThat(etag(upper)).isNotEqualTo(etag(exact));
+        assertThat(memberSearchETags.etag(exact, EnumSet.of(MemberTeamField.USERNAME), null)).isNotEqualTo(etag(exact));
+        assertThat(memberSearchETags.etag(exact, allFields, "application/cbor")).isNotEqualTo(etag(exact));
+    }
+
+    @Test
+    public void newInstanceDoesNotReuseETag(){
+        MemberSearchETags restarted = new MemberSearchETags(memberChangeFeed);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThat(etag(condition)).isEqualTo(etag(condition));
+        assertThat(restarted.etag(condition, allFields, null)).isNotEqualTo(etag(condition));
+    }
+
+    @Test
+    public void notModifiedUntilCommit(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("etagMember");
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MemberTeamRows rows = memberController.searchMemberV1(condition, null, request(null, first));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(rows).isEmpty();
+        assertThat(etag).isNotNull();
+
+        MockHttpServletResponse cached = new MockHttpServletResponse();
+        assertThat(memberController.searchMemberV1(condition, null, request(etag, cached))).isNull();
+        assertThat(cached.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("etagMember", 10)));
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        rows = memberController.searchMemberV1(condition, null, request(etag, changed));
+        assertThat(rows).extracting("username").containsExactly("etagMember");
+        assertThat(changed.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    private String etag(MemberSearchCondition condition) {
+        return memberSearchETags.etag(condition, allFields, null);
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.repository.deadline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentQueryTest {
+
+    @Test
+    public void cancelBeforeStartSkipsQuery(){
+        List<Runnable> queued = new ArrayList<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        ConcurrentQuery<Long> query = ConcurrentQuery.start(() -> (long) runs.incrementAndGet(), queued::add, new RunningStatements());
+        query.cancel();
+        queued.forEach(Runnable::run);
+
+        assertThat(runs.get()).isZero();
+        assertThatThrownBy(query::join).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    public void cancelAfterDoneKeepsResult(){
+        ConcurrentQuery<Long> query = ConcurrentQuery.start(() -> 5L, Runnable::run, new RunningStatements());
+        query.cancel();
+
+        assertThat(query.join()).isEqualTo(5L);
+    }
+}
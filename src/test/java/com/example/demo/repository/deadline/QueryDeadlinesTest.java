@@ -0,0 +1,121 @@
+package com.example.demo.repository.deadline;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.QMember;
+import com.example.demo.repository.MemberJpaRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+@Transactional
+class QueryDeadlinesTest {
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired QueryDeadlines queryDeadlines;
+    @Autowired RunningStatements runningStatements;
+
+    RequestDeadline deadline;
+
+    @AfterEach
+    public void after(){
+        if (deadline != null) {
+            queryDeadlines.end(deadline);
+        }
+    }
+
+    @Test
+    public void timeoutBounds(){
+        assertThatThrownBy(() -> queryDeadlines.begin(0L)).isInstanceOf(IllegalArgumentException.class);
+
+        deadline = queryDeadlines.begin(Long.MAX_VALUE);
+        assertThat(deadline.getTimeoutMillis()).isEqualTo(queryDeadlines.stats().getMaxTimeoutMs());
+        queryDeadlines.end(deadline);
+
+        deadline = queryDeadlines.begin(null);
+        assertThat(deadline.getTimeoutMillis()).isEqualTo(queryDeadlines.stats().getDefaultTimeoutMs());
+        assertThat(QueryDeadlines.current()).isSameAs(deadline);
+    }
+
+    @Test
+    public void searchWithinDeadline(){
+        em.persist(new Member("deadlineMember", 10));
+        em.flush();
+
+        deadline = queryDeadlines.begin(5_000L);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("deadlineMember");
+
+        assertThat(memberJpaRepository.search(condition)).extracting("username").containsExactly("deadlineMember");
+    }
+
+    @Test
+    public void expiredBeforeQuery() throws InterruptedException {
+        long before = queryDeadlines.stats().getExpiredBeforeQuery();
+        deadline = queryDeadlines.begin(1L);
+        Thread.sleep(5);
+
+        assertThatThrownBy(() -> memberJpaRepository.search(new MemberSearchCondition()))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(queryDeadlines.stats().getExpiredBeforeQuery()).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void cancelledBeforeQuery(){
+        deadline = queryDeadlines.begin(5_000L);
+        deadline.cancel();
+
+        assertThatThrownBy(() -> memberJpaRepository.search(new MemberSearchCondition()))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    public void nothingRunningIsNotCancelled(){
+        long cancelledBefore = queryDeadlines.stats().getCancelled();
+        deadline = queryDeadlines.begin(1L);
+
+        queryDeadlines.cancelExpired();
+
+        assertThat(runningStatements.cancel(Thread.currentThread())).isFalse();
+        assertThat(deadline.isCancelled()).isFalse();
+        assertThat(queryDeadlines.stats().getCancelled()).isEqualTo(cancelledBefore);
+    }
+
+    /**
+     * 실행 중인 statement 를 watchdog 이 Statement.cancel 로 끊었는지는 시간이 아니라 deadline 과 통계로 확인한다
+     */
+    @Test
+    public void watchdogCancelsRunningStatement(){
+        for (int i = 0; i < 500; i++) {
+            em.persist(new Member("slowMember" + i, i));
+        }
+        em.flush();
+
+        long cancelledBefore = queryDeadlines.stats().getCancelled();
+        deadline = queryDeadlines.begin(200L);
+        QMember m2 = new QMember("m2");
+        QMember m3 = new QMember("m3");
+
+        Throwable thrown = catchThrowable(() -> queryDeadlines.apply(queryFactory
+                        .select(QMember.member.count())
+                        .from(QMember.member, m2, m3)
+                        .where(QMember.member.age.add(m2.age).ne(m3.age)))
+                .fetchOne());
+
+        assertThat(QueryDeadlines.isTimeout(thrown)).as(String.valueOf(thrown)).isTrue();
+        assertThat(deadline.isCancelled()).isTrue();
+        assertThat(queryDeadlines.stats().getCancelled()).isEqualTo(cancelledBefore + 1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.repository.export;
+
+import com.example.demo.dto.MemberTeamDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExternalSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void mergesMultipleRuns() throws IOException {
+        List<MemberTeamDto> rows = randomRows(10_000);
+        ExternalSorter<MemberTeamDto> sorter = sorter(100, 4, Long.MAX_VALUE);
+
+        List<MemberTeamDto> sorted = new ArrayList<>();
+        try (ExternalSorter<MemberTeamDto>.SortedRuns runs = sorter.sort(rows.iterator())) {
+            runs.writeTo(sorted::add);
+
+            ExternalSortStats stats = runs.stats();
+            assertThat(stats.getRows()).isEqualTo(rows.size());
+            // 메모리 run 과 합쳐서 fan-in 이하로 줄어 있다
+            assertThat(stats.getRuns()).isLessThan(4);
+            assertThat(stats.getMergePasses()).isPositive();
+            assertThat(stats.getSpilledBytes()).isGreaterThan(stats.getTempBytes());
+        }
+
+        List<MemberTeamDto> expected = new ArrayList<>(rows);
+        expected.sort(MemberExporter.ORDER);
+        assertThat(sorted).containsExactlyElementsOf(expected);
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    public void smallInputStaysInMemory() throws IOException {
+        List<MemberTeamDto> rows = randomRows(50);
+        try (ExternalSorter<MemberTeamDto>.SortedRuns runs = sorter(100, 4, Long.MAX_VALUE).sort(rows.iterator())) {
+            assertThat(runs.stats().getRuns()).isZero();
+            assertThat(runs.stats().getSpilledBytes()).isZero();
+        }
+    }
+
+    @Test
+    public void tempLimitFailsAndDeletesFiles() throws IOException {
+        ExternalSorter<MemberTeamDto> sorter = sorter(100, 4, 2_000);
+
+        assertThatThrownBy(() -> sorter.sort(randomRows(10_000).iterator()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("2000");
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    public void invalidSettings() {
+        assertThatThrownBy(() -> sorter(0, 4, Long.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sorter(100, 1, Long.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ExternalSorter<MemberTeamDto> sorter(int runRows, int fanIn, long maxTempBytes) {
+        return new ExternalSorter<>(MemberExporter.ORDER, new MemberTeamDtoCodec(), runRows, fanIn, 512, tempDir, maxTempBytes);
+    }
+
+    private long tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * 나이와 이름이 겹치고 null 도 섞이도록 만든다
+     */
+    private static List<MemberTeamDto> randomRows(int size) {
+        Random random = new Random(1);
+        List<MemberTeamDto> rows = new ArrayList<>(size);
+        for (long id = 0; id < size; id++) {
+            String username = random.nextInt(10) == 0 ? null : "member" + random.nextInt(500);
+            Long teamId = random.nextInt(5) == 0 ? null : (long) random.nextInt(10);
+            rows.add(new MemberTeamDto(id, username, random.nextInt(100), teamId, teamId == null ? null : "팀" + teamId));
+        }
+        return rows;
+    }
+}
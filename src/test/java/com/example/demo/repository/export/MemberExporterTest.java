@@ -0,0 +1,156 @@
+package com.example.demo.repository.export;
+
+import com.example.demo.controller.MemberExportController;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 내보내기는 자기 트랜잭션에서 읽으므로 데이터를 커밋하고 끝나면 지운다
+ */
+@SpringBootTest(properties = {
+        "member.export.enabled=true",
+        "member.export.run-rows=7",
+        "member.export.fan-in=3",
+        "member.export.max-concurrent=1",
+        "member.export.timeout-ms=30000"
+})
+@AutoConfigureMockMvc
+class MemberExporterTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberExporter memberExporter;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired MemberExportController memberExportController;
+    @Autowired MockMvc mockMvc;
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name = 'exportTeam')").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'exportTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void exportSortedByAgeDescUsernameAsc() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("exportTeam");
+            em.persist(team);
+            for (int i = 0; i < 50; i++) {
+                em.persist(new Member(i % 10 == 0 ? null : "export" + (i % 7), i % 5, team));
+            }
+        });
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("exportTeam");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(memberExporter.tryAcquire()).isTrue();
+        assertThat(memberExporter.tryAcquire()).isFalse();
+        ExternalSortStats stats = memberExporter.export(condition, out);
+
+        assertThat(stats.getRows()).isEqualTo(50);
+        assertThat(stats.getSpilledBytes()).isPositive();
+        assertThat(memberExporter.stats().getRunning()).isZero();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(50);
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : lines) {
+            rows.add(objectMapper.readTree(line));
+        }
+        for (int i = 1; i < rows.size(); i++) {
+            JsonNode previous = rows.get(i - 1);
+            JsonNode current = rows.get(i);
+            assertThat(previous.get("age").asInt()).isGreaterThanOrEqualTo(current.get("age").asInt());
+            if (previous.get("age").asInt() == current.get("age").asInt() && current.get("username").isTextual()) {
+                assertThat(previous.get("username").isTextual()).isTrue();
+                assertThat(previous.get("username").asText()).isLessThanOrEqualTo(current.get("username").asText());
+            }
+        }
+        assertThat(rows.get(0).get("age").asInt()).isEqualTo(4);
+        assertThat(rows.get(rows.size() - 1).get("username").isNull()).isTrue();
+    }
+
+    @Test
+    public void permitIsTakenWhenBodyRuns() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("exportTeam");
+
+        // 작업이 실행되지 않고 버려져도 자리는 그대로다
+        memberExportController.export(condition, new MockHttpServletResponse());
+        Callable<Void> body = memberExportController.export(condition, new MockHttpServletResponse()).getCallable();
+        assertThat(memberExporter.stats().getRunning()).isZero();
+
+        body.call();
+        assertThat(memberExporter.stats().getRunning()).isZero();
+
+        assertThat(memberExporter.tryAcquire()).isTrue();
+        try {
+            assertThatThrownBy(body::call)
+                    .isInstanceOf(ResponseStatusException.class)
+                    .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                    .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            memberExporter.export(condition, new ByteArrayOutputStream());
+        }
+        assertThat(memberExporter.stats().getRunning()).isZero();
+    }
+
+    /**
+     * export 에만 timeout-ms 한도가 걸리고, 끝까지 내려보낸 응답은 complete 줄로 끝난다
+     */
+    @Test
+    public void completeLineAndOwnTimeout() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("exportTeam");
+            em.persist(team);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("export" + i, i, team));
+            }
+        });
+
+        MvcResult result = mockMvc.perform(get("/v1/members/export").param("teamName", "exportTeam"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(30_000);
+        result.getAsyncResult();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(11);
+        JsonNode complete = objectMapper.readTree(lines[10]);
+        assertThat(complete.get("complete").asBoolean()).isTrue();
+        assertThat(complete.get("rows").asInt()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.repository.index;
+
+import com.example.demo.controller.MemberIndexController;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 색인은 커밋된 변경만 피드로 받으므로 테스트 데이터를 커밋해두고 끝나면 지운다.
+ * 스케줄러가 끼어들지 않도록 sync 주기를 길게 두고 sync 는 직접 부른다
+ */
+@SpringBootTest(properties = {"member.search-index.enabled=true", "member.search-index.sync-interval-ms=3600000"})
+class MemberSearchIndexSyncTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberSearchIndex memberSearchIndex;
+    @Autowired MemberIndexController memberIndexController;
+
+    List<Long> ids;
+    Long teamId;
+
+    @BeforeEach
+    public void before(){
+        ids = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team syncTeam = new Team("syncTeam");
+            em.persist(syncTeam);
+            teamId = syncTeam.getId();
+            for (int i = 0; i < 5; i++) {
+                Member syncMember = new Member("syncMember" + i, 10 + i, syncTeam);
+                em.persist(syncMember);
+                ids.add(syncMember.getId());
+            }
+        });
+        memberSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    public void after(){
+        memberJpaRepository.bulkDelete(member.username.startsWith("sync"));
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Team t where t.id = :id").setParameter("id", teamId).executeUpdate());
+    }
+
+    @Test
+    public void followsCommittedChanges(){
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Member.class, ids.get(0)).setAge(99));
+        memberJpaRepository.bulkUpdate(member.id.eq(ids.get(1)),
+                clause -> clause.set(member.username, "syncRenamed"));
+        memberJpaRepository.bulkDelete(member.id.eq(ids.get(2)));
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Team.class, teamId).setName("syncTeamRenamed"));
+
+        memberSearchIndex.sync();
+
+        assertThat(memberSearchIndex.isCaughtUp()).isTrue();
+        assertSameAsRepository(condition(null, "syncTeamRenamed"));
+        assertSameAsRepository(condition("syncRenamed", null));
+        assertThat(memberSearchIndex.search(condition(null, "syncTeam"))).isEmpty();
+        assertThat(memberSearchIndex.search(condition(null, "syncTeamRenamed")))
+                .extracting("username")
+                .containsExactly("syncMember0", "syncRenamed", "syncMember3", "syncMember4");
+    }
+
+    @Test
+    public void staleIndexFallsBackToRepository(){
+        memberJpaRepository.bulkUpdate(member.id.eq(ids.get(0)),
+                clause -> clause.set(member.username, "syncStale"));
+
+        assertThat(memberSearchIndex.isCaughtUp()).isFalse();
+        assertThat(memberIndexController.searchMember(condition("syncStale", null)))
+                .extracting("username")
+                .containsExactly("syncStale");
+
+        memberSearchIndex.sync();
+        assertThat(memberSearchIndex.search(condition("syncStale", null)))
+                .extracting("username")
+                .containsExactly("syncStale");
+    }
+
+    private void assertSameAsRepository(MemberSearchCondition condition) {
+        assertThat(memberSearchIndex.search(condition))
+                .as(condition.toString())
+                .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
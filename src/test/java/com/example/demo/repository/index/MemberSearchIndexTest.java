@@ -0,0 +1,130 @@
+package com.example.demo.repository.index;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.controller.MemberIndexController;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.MemberRepository;
+import com.example.demo.repository.changefeed.MemberChangeFeed;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "member.search-index.enabled=true")
+@Transactional
+class MemberSearchIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberSearchIndex memberSearchIndex;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired MemberChangeFeed changeFeed;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 20; i++) {
+            Team selectedTeam = i % 3 == 0 ? null : i % 3 == 1 ? teamA : teamB;
+            em.persist(new Member("member" + (i % 7), i * 5, selectedTeam));
+        }
+        em.persist(new Member(null, 50));
+        em.flush();
+
+        memberSearchIndex.rebuild();
+    }
+
+    @Test
+    public void sameResultAsQuerydsl(){
+        List<String> usernames = Arrays.asList(null, "", "member1", "member6", "none");
+        List<String> teamNames = Arrays.asList(null, "", "teamA", "teamB", "none");
+        List<Integer> ageGoes = Arrays.asList(null, 0, 35, 60, 200);
+        List<Integer> ageLoes = Arrays.asList(null, 20, 50, -1);
+
+        for (String username : usernames) {
+            for (String teamName : teamNames) {
+                for (Integer ageGoe : ageGoes) {
+                    for (Integer ageLoe : ageLoes) {
+                        MemberSearchCondition condition = new MemberSearchCondition();
+                        condition.setUsername(username);
+                        condition.setTeamName(teamName);
+                        condition.setAgeGoe(ageGoe);
+                        condition.setAgeLoe(ageLoe);
+
+                        List<MemberTeamDto> expected = memberRepository.search(condition);
+                        assertThat(memberSearchIndex.search(condition))
+                                .as(condition.toString())
+                                .containsExactlyInAnyOrderElementsOf(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void upsertAndRemove(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("indexMember");
+
+        memberSearchIndex.upsertTeam(-1L, "indexTeam");
+        memberSearchIndex.upsertMember(-10L, "indexMember", 10, -1L);
+        assertThat(memberSearchIndex.search(condition))
+                .containsExactly(new MemberTeamDto(-10L, "indexMember", 10, -1L, "indexTeam"));
+
+        memberSearchIndex.upsertMember(-10L, "indexMember", 11, null);
+        assertThat(memberSearchIndex.search(condition))
+                .containsExactly(new MemberTeamDto(-10L, "indexMember", 11, null, null));
+
+        memberSearchIndex.removeMember(-10L);
+        assertThat(memberSearchIndex.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void removedSlotsAreReused(){
+        int slots = memberSearchIndex.slotCount();
+        for (long id = -1; id >= -100; id--) {
+            memberSearchIndex.upsertMember(id, "reusedMember", 10, null);
+            memberSearchIndex.removeMember(id);
+        }
+        assertThat(memberSearchIndex.slotCount()).isEqualTo(slots + 1);
+
+        // 재사용한 slot 이 앞에 있어도 결과는 id 순서다
+        memberSearchIndex.upsertMember(Long.MAX_VALUE, "member1", 10, null);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        List<MemberTeamDto> results = memberSearchIndex.search(condition);
+        assertThat(results).extracting("memberId").isSorted();
+        assertThat(results.get(results.size() - 1).getMemberId()).isEqualTo(Long.MAX_VALUE);
+        memberSearchIndex.removeMember(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void notReadyFallsBackToRepository(){
+        MemberSearchIndex warmingUp = new MemberSearchIndex(queryFactory, changeFeed);
+        MemberIndexController controller = new MemberIndexController(warmingUp, memberJpaRepository);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        assertThat(warmingUp.isReady()).isFalse();
+        assertThat(controller.searchMember(condition))
+                .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition))
+                .isNotEmpty();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.repository.limit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimiterTest {
+
+    SlowDataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    GradientConcurrencyLimiter limiter;
+
+    @BeforeEach
+    public void before(){
+        dataSource = new SlowDataSource(new DriverManagerDataSource("jdbc:h2:mem:limiterTest;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        limiter = new GradientConcurrencyLimiter(20, 4, 100, 1.5, 0.2, 600);
+    }
+
+    @Test
+    public void limitFollowsDatabaseLatency(){
+        // 1. DB 가 빠르고 한도를 다 쓰고 있으면 한도가 늘어난다
+        dataSource.latencyMillis = 1;
+        for (int round = 0; round < 10; round++) {
+            runRound(Integer.MAX_VALUE);
+        }
+        int fastLimit = limiter.getLimit();
+        assertThat(fastLimit).isGreaterThan(20);
+
+        // 2. DB 가 20 배 느려지면 한도가 빠르게 줄고, 한도를 넘는 요청은 거절된다
+        dataSource.latencyMillis = 20;
+        for (int round = 0; round < 10; round++) {
+            runRound(5);
+        }
+        int slowLimit = limiter.getLimit();
+        assertThat(slowLimit).isLessThan(fastLimit / 2);
+
+        long rejectedBefore = limiter.stats().getRejected();
+        int acquired = acquireAll();
+        assertThat(acquired).isEqualTo(slowLimit);
+        assertThat(limiter.stats().getRejected()).isEqualTo(rejectedBefore + 1);
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(0);
+        }
+
+        // 3. 다시 빨라지면 한도가 회복된다
+        dataSource.latencyMillis = 1;
+        for (int round = 0; round < 10; round++) {
+            runRound(Integer.MAX_VALUE);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(slowLimit);
+    }
+
+    @Test
+    public void doesNotGrowWhileUnderused(){
+        dataSource.latencyMillis = 1;
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(query());
+        }
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(20);
+    }
+
+    /**
+     * 여러 스레드가 동시에 자리를 잡고 놓아도 한도를 넘지 않고, 끝나면 모두 반납된다
+     */
+    @Test
+    public void concurrentAcquireNeverExceedsLimit() throws Exception {
+        GradientConcurrencyLimiter fixed = new GradientConcurrencyLimiter(8, 8, 8, 1.5, 0.2, 600);
+        AtomicInteger holding = new AtomicInteger();
+        AtomicInteger maxHolding = new AtomicInteger();
+        AtomicInteger acquired = new AtomicInteger();
+        int threads = 32;
+        int attempts = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < attempts; i++) {
+                        if (!fixed.tryAcquire()) {
+                            continue;
+                        }
+                        acquired.incrementAndGet();
+                        maxHolding.accumulateAndGet(holding.incrementAndGet(), Math::max);
+                        Thread.yield();
+                        holding.decrementAndGet();
+                        fixed.release(1_000_000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(maxHolding.get()).isLessThanOrEqualTo(8);
+        assertThat(fixed.stats().getInFlight()).isZero();
+        assertThat(fixed.stats().getAccepted()).isEqualTo(acquired.get());
+        assertThat(fixed.stats().getAccepted() + fixed.stats().getRejected()).isEqualTo((long) threads * attempts);
+    }
+
+    /**
+     * 한도만큼 자리를 잡은 뒤, 그중 최대 max 개에 대해 실제로 쿼리를 보내고 그 시간을 RTT 로 돌려준다
+     */
+    private void runRound(int max) {
+        int acquired = acquireAll();
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(i < max ? query() : 0);
+        }
+    }
+
+    private int acquireAll() {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private long query() {
+        long start = System.nanoTime();
+        jdbcTemplate.queryForObject("select 1", Integer.class);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * statement 를 실행할 때마다 latencyMillis 만큼 기다리는 DataSource. 느려진 DB 를 흉내 낸다.
+     * 커넥션 풀 대기는 {@link com.example.demo.controller.ConcurrencyLimitFilterTest} 에서 필터를 거쳐 확인한다
+     */
+    static class SlowDataSource extends DelegatingDataSource {
+
+        volatile long latencyMillis;
+
+        SlowDataSource(DriverManagerDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = call(connection, method, args);
+                        if (result instanceof PreparedStatement statement) {
+                            return slow(statement, PreparedStatement.class);
+                        }
+                        if (result instanceof Statement statement) {
+                            return slow(statement, Statement.class);
+                        }
+                        return result;
+                    });
+        }
+
+        private Object slow(Statement statement, Class<? extends Statement> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    Thread.sleep(latencyMillis);
+                }
+                return call(statement, method, args);
+            });
+        }
+
+        private static Object call(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.repository.ngram;
+
+import com.example.demo.dto.UsernameMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    public void sameResultAsScan(){
+        Random random = new Random(41);
+        TrigramIndex index = new TrigramIndex();
+        // 수정과 삭제를 섞어서 낡은 posting 과 compact 까지 거치게 한다
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(3_000);
+            if (random.nextInt(10) == 0) {
+                index.remove(id);
+            } else {
+                index.put(id, randomUsername(random));
+            }
+        }
+
+        for (String fragment : List.of("abc", "Abc", "mem", "ber", "r1", "bca", "aaaa", "xyz", "ABCD")) {
+            for (UsernameMatch match : List.of(UsernameMatch.CONTAINS, UsernameMatch.CONTAINS_IGNORE_CASE)) {
+                List<Long> expected = index.scan(fragment, match);
+                List<Long> found = index.search(fragment, match, Integer.MAX_VALUE);
+                if (fragment.length() < TrigramIndex.GRAM) {
+                    assertThat(found).isNull();
+                } else {
+                    assertThat(found).as(fragment + " " + match).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tooManyCandidates(){
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 0; id < 10; id++) {
+            index.put(id, "member" + id);
+        }
+
+        assertThat(index.search("member", UsernameMatch.CONTAINS, 10)).hasSize(10);
+        assertThat(index.search("member", UsernameMatch.CONTAINS, 9)).isNull();
+        assertThat(index.search("member7", UsernameMatch.CONTAINS, 9)).containsExactly(7L);
+    }
+
+    @Test
+    public void updateAndRemove(){
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "alpha");
+        index.put(2L, "alphabet");
+        index.put(1L, "omega");
+        index.remove(2L);
+        index.put(3L, null);
+
+        assertThat(index.search("alp", UsernameMatch.CONTAINS, 10)).isEmpty();
+        assertThat(index.search("meg", UsernameMatch.CONTAINS, 10)).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.compact();
+        assertThat(index.postingCount()).isEqualTo(3);
+        assertThat(index.search("ega", UsernameMatch.CONTAINS, 10)).containsExactly(1L);
+    }
+
+    private static String randomUsername(Random random) {
+        String alphabet = "abcAB";
+        StringBuilder username = new StringBuilder(random.nextBoolean() ? "member" : "");
+        int length = 1 + random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            username.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return username.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.repository.ngram;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.dto.UsernameMatch;
+import com.example.demo.entity.Member;
+import com.example.demo.repository.MemberJpaRepository;
+import com.example.demo.repository.MemberRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 색인은 커밋된 변경만 피드로 받으므로 테스트 데이터를 커밋해두고 끝나면 지운다
+ */
+@SpringBootTest(properties = "member.username-index.enabled=true")
+class UsernameTrigramIndexTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired UsernameTrigramIndex usernameTrigramIndex;
+
+    List<Long> ids;
+
+    @BeforeEach
+    public void before(){
+        ids = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                Member trigramMember = new Member("trigramMember" + i, 10 + i);
+                em.persist(trigramMember);
+                ids.add(trigramMember.getId());
+            }
+            Member other = new Member("trigramOTHER", 40);
+            em.persist(other);
+            ids.add(other.getId());
+        });
+        usernameTrigramIndex.rebuild();
+    }
+
+    @AfterEach
+    public void after(){
+        memberJpaRepository.bulkDelete(member.username.startsWith("trigram"));
+    }
+
+    @Test
+    public void containsUsesIndex(){
+        UsernameTrigramIndexStats before = usernameTrigramIndex.stats();
+
+        List<MemberTeamDto> result = memberJpaRepository.search(condition("gramMember", UsernameMatch.CONTAINS));
+
+        assertThat(result).extracting("username")
+                .containsExactlyInAnyOrder("trigramMember0", "trigramMember1", "trigramMember2", "trigramMember3", "trigramMember4");
+        assertThat(usernameTrigramIndex.stats().getIndexedLookups()).isEqualTo(before.getIndexedLookups() + 1);
+    }
+
+    @Test
+    public void ignoreCase(){
+        assertThat(memberJpaRepository.search(condition("GRAMOTHER", UsernameMatch.CONTAINS)))
+                .isEmpty();
+        assertThat(memberJpaRepository.search(condition("GRAMOTHER", UsernameMatch.CONTAINS_IGNORE_CASE)))
+                .extracting("username")
+                .containsExactly("trigramOTHER");
+    }
+
+    @Test
+    public void noCandidate(){
+        UsernameTrigramIndexStats before = usernameTrigramIndex.stats();
+
+        assertThat(memberJpaRepository.search(condition("zzqqzz", UsernameMatch.CONTAINS))).isEmpty();
+        assertThat(usernameTrigramIndex.stats().getIndexedLookups()).isEqualTo(before.getIndexedLookups() + 1);
+    }
+
+    @Test
+    public void shortFragmentFallsBackToLike(){
+        UsernameTrigramIndexStats before = usernameTrigramIndex.stats();
+
+        MemberSearchCondition condition = condition("r4", UsernameMatch.CONTAINS);
+        condition.setAgeGoe(10);
+        assertThat(memberJpaRepository.search(condition)).extracting("username").containsExactly("trigramMember4");
+        assertThat(usernameTrigramIndex.stats().getFallbacks()).isEqualTo(before.getFallbacks() + 1);
+    }
+
+    @Test
+    public void pageAndCount(){
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(
+                condition("ramMem", UsernameMatch.CONTAINS), PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    public void followsCommittedChanges(){
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Member.class, ids.get(0)).setUsername("trigramRenamed"));
+        memberJpaRepository.bulkUpdate(member.id.eq(ids.get(1)),
+                clause -> clause.set(member.username, "trigramBulkRenamed"));
+        memberJpaRepository.bulkDelete(member.id.eq(ids.get(2)));
+
+        assertThat(memberJpaRepository.search(condition("gramMember", UsernameMatch.CONTAINS)))
+                .extracting("username")
+                .containsExactlyInAnyOrder("trigramMember3", "trigramMember4");
+        assertThat(memberJpaRepository.search(condition("Renamed", UsernameMatch.CONTAINS)))
+                .extracting("username")
+                .containsExactlyInAnyOrder("trigramRenamed", "trigramBulkRenamed");
+        assertThat(usernameTrigramIndex.stats().getMembers()).isGreaterThanOrEqualTo(4);
+    }
+
+    /**
+     * 같은 트랜잭션에서 저장한 회원은 아직 피드에 없으므로 색인 대신 LIKE 로 찾아야 한다
+     */
+    @Test
+    public void sameTransactionReadAfterWrite(){
+        UsernameTrigramIndexStats before = usernameTrigramIndex.stats();
+
+        List<MemberTeamDto> result = transactionTemplate.execute(status -> {
+            em.persist(new Member("trigramFresh", 50));
+            return memberJpaRepository.search(condition("gramFresh", UsernameMatch.CONTAINS));
+        });
+
+        assertThat(result).extracting("username").containsExactly("trigramFresh");
+        assertThat(usernameTrigramIndex.stats().getStaleFallbacks()).isEqualTo(before.getStaleFallbacks() + 1);
+    }
+
+    @Test
+    public void behindFeedFallsBackToLike(){
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("trigramLate", 50)));
+
+        assertThat(memberJpaRepository.search(condition("gramLate", UsernameMatch.CONTAINS)))
+                .extracting("username")
+                .containsExactly("trigramLate");
+
+        usernameTrigramIndex.sync();
+        UsernameTrigramIndexStats before = usernameTrigramIndex.stats();
+        assertThat(memberJpaRepository.search(condition("gramLate", UsernameMatch.CONTAINS)))
+                .extracting("username")
+                .containsExactly("trigramLate");
+        assertThat(usernameTrigramIndex.stats().getIndexedLookups()).isEqualTo(before.getIndexedLookups() + 1);
+    }
+
+    private static MemberSearchCondition condition(String username, UsernameMatch match){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(match);
+        return condition;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.repository.replica;
+
+import com.example.demo.controller.MemberController;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.entity.Member;
+import com.example.demo.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * replica 라우팅을 켠 상태에서 ETag 를 붙이는 검색이 primary 에서 읽는지 본다.
+ * replica 는 복제되지 않는 별도 H2 라서 primary 에만 커밋한 회원은 replica 에서 보이지 않는다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:etagReplicaPrimary",
+        "member.replica.enabled=true",
+        "member.replica.url=jdbc:h2:mem:etagReplicaStandby",
+        "member.replica.max-lag-ms=1000",
+        "member.replica.heartbeat-interval-ms=3600000"
+})
+class MemberSearchETagsReplicaTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired ReplicaRoutingDataSource routingDataSource;
+    @Autowired ReplicaLagMonitor lagMonitor;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberController memberController;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void before(){
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(routingDataSource.getReplica());
+
+        replica.execute("create table if not exists REPLICA_HEARTBEAT (ID int primary key, BEAT_AT bigint not null)");
+        replica.update("merge into REPLICA_HEARTBEAT key (ID) values (1, 0)");
+        replica.execute("create table if not exists team (id bigint primary key, name varchar(255))");
+        replica.execute("create table if not exists member (member_id bigint primary key, age integer not null, team_id bigint, "
+                + "username varchar(255), username_lower varchar(255))");
+    }
+
+    @AfterEach
+    public void after(){
+        RequestContextHolder.resetRequestAttributes();
+        primary.update("delete from member where username like 'etagReplica%'");
+    }
+
+    @Test
+    public void etagSearchReadsPrimary(){
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("etagReplicaMember", 10)));
+        replicate();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("etagReplicaMember");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        long replicaReads = routingDataSource.stats().getReplicaReads();
+        long pinnedReads = routingDataSource.stats().getPinnedReads();
+
+        assertThat(memberController.searchMemberV1(condition, null, new ServletWebRequest(request, response)))
+                .extracting("username").containsExactly("etagReplicaMember");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(routingDataSource.stats().getReplicaReads()).isEqualTo(replicaReads);
+        assertThat(routingDataSource.stats().getPinnedReads()).isGreaterThan(pinnedReads);
+
+        // 고정은 그 요청에만 걸린다. 다른 읽기는 여전히 replica 로 가서 아직 복제되지 않은 회원을 못 본다
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(memberJpaRepository.findByUsername("etagReplicaMember")).isEmpty();
+        assertThat(routingDataSource.stats().getReplicaReads()).isGreaterThan(replicaReads);
+    }
+
+    /**
+     * primary 의 하트비트를 replica 로 복사해서 지연 없이 따라잡은 상태로 만든다
+     */
+    private void replicate() {
+        lagMonitor.beat();
+        Long beat = primary.queryForObject("select BEAT_AT from REPLICA_HEARTBEAT where ID = 1", Long.class);
+        replica.update("update REPLICA_HEARTBEAT set BEAT_AT = ? where ID = 1", beat);
+        lagMonitor.measure();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.repository.replica;
+
+import com.example.demo.entity.Member;
+import com.example.demo.repository.MemberJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary 와 replica 를 서로 다른 H2 메모리 DB 로 띄운다.
+ * 복제는 없으므로 replica 에는 테스트가 직접 스키마와 데이터를 넣고, 하트비트도 직접 복사해서 복제 지연을 흉내낸다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicaTestPrimary",
+        "member.replica.enabled=true",
+        "member.replica.url=jdbc:h2:mem:replicaTestStandby",
+        "member.replica.max-lag-ms=1000",
+        "member.replica.heartbeat-interval-ms=3600000"
+})
+class ReplicaRoutingTest {
+
+    @Autowired ReplicaRoutingDataSource routingDataSource;
+    @Autowired ReplicaLagMonitor lagMonitor;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void before(){
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(routingDataSource.getReplica());
+
+        replica.execute("create table if not exists REPLICA_HEARTBEAT (ID int primary key, BEAT_AT bigint not null)");
+        replica.update("merge into REPLICA_HEARTBEAT key (ID) values (1, 0)");
+        replica.execute("create table if not exists team (id bigint primary key, name varchar(255))");
+        replica.execute("create table if not exists member (member_id bigint primary key, age integer not null, team_id bigint, username varchar(255))");
+        replica.update("insert into member (member_id, age, username) values (1, 10, 'replicaMember')");
+    }
+
+    @AfterEach
+    public void after(){
+        RequestContextHolder.resetRequestAttributes();
+        replica.update("delete from member");
+        primary.update("delete from member where username like 'replica%'");
+    }
+
+    @Test
+    public void readOnlyGoesToReplica(){
+        replicate();
+
+        assertThat(memberJpaRepository.findByUsername("replicaMember")).hasSize(1);
+        assertThat(routingDataSource.stats().getReplicaReads()).isPositive();
+    }
+
+    @Test
+    public void lagFallsBackToPrimary(){
+        lagMonitor.probe();
+        long fallbacks = routingDataSource.stats().getLagFallbacks();
+
+        assertThat(routingDataSource.stats().isReplicaUsable()).isFalse();
+        assertThat(memberJpaRepository.findByUsername("replicaMember")).isEmpty();
+        assertThat(routingDataSource.stats().getLagFallbacks()).isGreaterThan(fallbacks);
+    }
+
+    @Test
+    public void writesGoToPrimary(){
+        replicate();
+
+        transactionTemplate.executeWithoutResult(status -> memberJpaRepository.save(new Member("replicaWritten", 20)));
+
+        assertThat(primary.queryForObject("select count(*) from member where username = 'replicaWritten'", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from member where username = 'replicaWritten'", Long.class)).isZero();
+    }
+
+    @Test
+    public void readYourWritesInSameRequest(){
+        replicate();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(memberJpaRepository.findByUsername("replicaMember")).hasSize(1);
+
+        transactionTemplate.executeWithoutResult(status -> memberJpaRepository.save(new Member("replicaWritten", 20)));
+        long stickyReads = routingDataSource.stats().getStickyReads();
+
+        assertThat(memberJpaRepository.findByUsername("replicaWritten")).hasSize(1);
+        assertThat(memberJpaRepository.findByUsername("replicaMember")).isEmpty();
+        assertThat(routingDataSource.stats().getStickyReads()).isGreaterThan(stickyReads);
+
+        // 다음 요청은 다시 replica 로 읽는다
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(memberJpaRepository.findByUsername("replicaMember")).hasSize(1);
+    }
+
+    /**
+     * primary 의 하트비트를 replica 로 복사해서 지연 없이 따라잡은 상태로 만든다
+     */
+    private void replicate() {
+        lagMonitor.beat();
+        Long beat = primary.queryForObject("select BEAT_AT from REPLICA_HEARTBEAT where ID = 1", Long.class);
+        replica.update("update REPLICA_HEARTBEAT set BEAT_AT = ? where ID = 1", beat);
+        lagMonitor.measure();
+    }
+}
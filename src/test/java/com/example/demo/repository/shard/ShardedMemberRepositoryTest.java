@@ -0,0 +1,151 @@
+package com.example.demo.repository.shard;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.demo.repository.sql.SMember.member;
+import static com.example.demo.repository.sql.STeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 샤드 3개를 각각 별도의 H2 메모리 DB 로 띄운다
+ */
+@SpringBootTest(properties = {
+        "member.sharding.enabled=true",
+        "member.sharding.urls=jdbc:h2:mem:shardTest0,jdbc:h2:mem:shardTest1,jdbc:h2:mem:shardTest2"
+})
+class ShardedMemberRepositoryTest {
+
+    @Autowired MemberShards shards;
+    @Autowired ShardedMemberRepository shardedMemberRepository;
+
+    @AfterEach
+    public void after(){
+        for (MemberShard shard : shards.all()) {
+            shard.execute(query -> query.delete(member).execute());
+            shard.execute(query -> query.delete(team).execute());
+        }
+    }
+
+    @Test
+    public void routeByTeam(){
+        Long teamA = shardedMemberRepository.saveTeam("teamA");
+        Long memberId = shardedMemberRepository.saveMember("member1", 10, teamA);
+
+        for (MemberShard shard : shards.all()) {
+            assertThat(shard.execute(query -> query.select(team.id).from(team).fetch())).containsExactly(teamA);
+
+            List<Long> memberIds = shard.execute(query -> query.select(member.memberId).from(member).fetch());
+            if (shard == shards.forTeam(teamA)) {
+                assertThat(memberIds).containsExactly(memberId);
+            } else {
+                assertThat(memberIds).isEmpty();
+            }
+        }
+
+        assertThat(shards.forMember(memberId)).isSameAs(shards.forTeam(teamA));
+        MemberTeamDto found = shardedMemberRepository.findById(memberId).orElseThrow();
+        assertThat(found.getUsername()).isEqualTo("member1");
+        assertThat(found.getTeamName()).isEqualTo("teamA");
+    }
+
+    @Test
+    public void replicateTeamIsIdempotent(){
+        Long teamA = shardedMemberRepository.saveTeam("teamA");
+        // 한 샤드에만 복제가 빠진 상태를 만든다
+        shards.get(1).execute(query -> query.delete(team).where(team.id.eq(teamA)).execute());
+
+        shardedMemberRepository.replicateTeam(teamA, "teamA");
+        shardedMemberRepository.replicateTeam(teamA, "teamA");
+
+        for (MemberShard shard : shards.all()) {
+            assertThat(shard.execute(query -> query.select(team.name).from(team).where(team.id.eq(teamA)).fetch()))
+                    .containsExactly("teamA");
+        }
+    }
+
+    @Test
+    public void teamNameGoesToSingleShard(){
+        List<Long> teamIds = saveTeams(3);
+        for (int i = 0; i < 6; i++) {
+            shardedMemberRepository.saveMember("member" + i, 10 + i, teamIds.get(i % 3));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+
+        assertThat(shardedMemberRepository.targetShards(condition)).containsExactly(shards.forTeam(teamIds.get(1)));
+        assertThat(shardedMemberRepository.search(condition)).extracting("username").containsExactly("member1", "member4");
+        assertThat(shardedMemberRepository.count(condition)).isEqualTo(2);
+
+        condition.setTeamName("noSuchTeam");
+        assertThat(shardedMemberRepository.targetShards(condition)).isEmpty();
+        assertThat(shardedMemberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void fanOutSortedPage(){
+        List<Long> teamIds = saveTeams(3);
+        List<MemberTeamDto> expected = new ArrayList<>();
+        int[] ages = {30, 10, 20, 30, 50, 10, 40, 20, 30, 60};
+        for (int i = 0; i < ages.length; i++) {
+            Long teamId = i == ages.length - 1 ? null : teamIds.get(i % 3);
+            Long memberId = shardedMemberRepository.saveMember("member" + i, ages[i], teamId);
+            expected.add(shardedMemberRepository.findById(memberId).orElseThrow());
+        }
+        expected.sort(Comparator.comparingInt(MemberTeamDto::getAge).reversed()
+                .thenComparing(MemberTeamDto::getMemberId));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(shardedMemberRepository.targetShards(condition)).hasSize(3);
+
+        List<MemberTeamDto> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<MemberTeamDto> result = shardedMemberRepository.searchPage(condition,
+                    PageRequest.of(page, 4, Sort.by(Sort.Order.desc("age"))));
+            assertThat(result.getTotalElements()).isEqualTo(ages.length);
+            paged.addAll(result.getContent());
+        }
+        assertThat(paged).containsExactlyElementsOf(expected);
+
+        condition.setAgeGoe(30);
+        assertThat(shardedMemberRepository.search(condition)).extracting("age").containsOnly(30, 40, 50, 60).hasSize(6);
+    }
+
+    @Test
+    public void unknownSortProperty(){
+        assertThatThrownBy(() -> shardedMemberRepository.searchPage(new MemberSearchCondition(),
+                PageRequest.of(0, 10, Sort.by("password"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void mergeSorted(){
+        List<List<Integer>> runs = List.of(List.of(1, 4, 7), List.of(), List.of(2, 3, 8, 9), List.of(5, 6));
+        assertThat(ShardedMemberRepository.mergeSorted(runs, Comparator.naturalOrder(), 0, Integer.MAX_VALUE))
+                .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(ShardedMemberRepository.mergeSorted(runs, Comparator.naturalOrder(), 3, 4))
+                .containsExactly(4, 5, 6, 7);
+        assertThat(ShardedMemberRepository.mergeSorted(runs, Comparator.naturalOrder(), 20, 4)).isEmpty();
+    }
+
+    private List<Long> saveTeams(int count) {
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            teamIds.add(shardedMemberRepository.saveTeam("team" + i));
+        }
+        return teamIds;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.repository.slowquery;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.entity.Member;
+import com.example.demo.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "member.slow-query.enabled=true",
+        "member.slow-query.threshold-ms=0",
+        "member.slow-query.explain-interval-ms=0"
+})
+@Transactional
+class SlowQueryLogTest {
+
+    @Autowired EntityManager em;
+    @Autowired DataSource dataSource;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    public void before(){
+        em.persist(new Member("slowMember", 10));
+        em.flush();
+        slowQueryLog.clear();
+    }
+
+    @Test
+    public void dataSourceIsWrapped(){
+        assertThat(dataSource).isInstanceOf(SlowQueryDataSource.class);
+    }
+
+    @Test
+    public void recordsQuerydslQueryWithExplain() throws InterruptedException {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("slowMember");
+        assertThat(memberJpaRepository.search(condition)).hasSize(1);
+
+        List<SlowQuery> entries = slowQueryLog.entries();
+        assertThat(entries).isNotEmpty();
+        SlowQuery slowQuery = entries.get(0);
+        assertThat(slowQuery.getSql()).containsIgnoringCase("username");
+        assertThat(slowQuery.getRows()).isEqualTo(1);
+        // redact-parameters 기본값이라 값은 남지 않는다
+        assertThat(slowQuery.getParameters()).contains("<String>").doesNotContain("slowMember");
+
+        long until = System.currentTimeMillis() + 5_000;
+        while (slowQuery.getExplain() == null && System.currentTimeMillis() < until) {
+            Thread.sleep(10);
+        }
+        assertThat(slowQuery.getExplain()).isNotNull();
+        assertThat(slowQuery.getExplain().toLowerCase(Locale.ROOT)).contains("idx_member_username");
+    }
+
+    @Test
+    public void mergesSameSql(){
+        for (int i = 0; i < 150; i++) {
+            memberJpaRepository.findById(1L);
+            em.clear();
+        }
+        SlowQueryLogStats stats = slowQueryLog.stats();
+        assertThat(stats.getSize()).isEqualTo(1);
+        SlowQuery slowQuery = slowQueryLog.entries().get(0);
+        assertThat(slowQuery.getCount()).isEqualTo(150);
+        assertThat(slowQuery.getId()).isEqualTo(stats.getRecorded());
+        assertThat(slowQuery.getMaxElapsedMs()).isGreaterThanOrEqualTo(slowQuery.getElapsedMs());
+    }
+
+    @Test
+    public void keepsNewestWithinCapacity(){
+        SlowQueryLog log = new SlowQueryLog(0, 100, true, 1_000, 16);
+        try {
+            for (int i = 0; i < 150; i++) {
+                log.record("update member set age = " + i, Map.of(), 1, 1_000, explainSource());
+            }
+            SlowQueryLogStats stats = log.stats();
+            assertThat(stats.getRecorded()).isEqualTo(150);
+            assertThat(stats.getSize()).isEqualTo(stats.getCapacity());
+            List<SlowQuery> entries = log.entries();
+            assertThat(entries.get(0).getSql()).isEqualTo("update member set age = 149");
+            assertThat(entries.get(99).getSql()).isEqualTo("update member set age = 50");
+        } finally {
+            log.shutdown();
+        }
+    }
+
+    @Test
+    public void normalizesWhitespaceAndInList(){
+        assertThat(SlowQueryLog.normalize("select *\n  from member where id in (?, ?,?)"))
+                .isEqualTo(SlowQueryLog.normalize("select * from member where id in (?)"))
+                .isEqualTo("select * from member where id in (?...)");
+    }
+
+    @Test
+    public void rateLimitsExplain() throws InterruptedException {
+        SlowQueryLog log = new SlowQueryLog(0, 100, true, 60_000, 16);
+        try {
+            log.record("select * from member where age = ?", Map.of(1, 10), 1, 1_000, explainSource());
+            log.record("select * from member where username = ?", Map.of(1, "a"), 1, 1_000, explainSource());
+            log.record("select * from member where age = ?", Map.of(1, 20), 1, 1_000, explainSource());
+
+            SlowQueryLogStats stats = log.stats();
+            assertThat(stats.getExplainSkipped()).isEqualTo(1);
+            assertThat(stats.getSize()).isEqualTo(2);
+
+            List<SlowQuery> entries = log.entries();
+            assertThat(entries.get(1).getExplain()).startsWith("EXPLAIN skipped");
+            // 같은 모양은 먼저 실행한 EXPLAIN 결과를 받는다
+            SlowQuery repeated = entries.get(0);
+            assertThat(repeated.getCount()).isEqualTo(2);
+            long until = System.currentTimeMillis() + 5_000;
+            while (repeated.getExplain() == null && System.currentTimeMillis() < until) {
+                Thread.sleep(10);
+            }
+            assertThat(repeated.getExplain()).isNotNull().doesNotStartWith("EXPLAIN");
+        } finally {
+            log.shutdown();
+        }
+    }
+
+    private DataSource explainSource() {
+        return ((SlowQueryDataSource) dataSource).getTargetDataSource();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.repository.snapshot;
+
+import com.example.demo.entity.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스냅샷은 자기 트랜잭션에서 읽으므로 데이터를 커밋하고 끝나면 지운다.
+ * 주기 갱신은 사실상 끄고 refresh() 를 직접 부른다
+ */
+@SpringBootTest(properties = {
+        "member.snapshot.enabled=true",
+        "member.snapshot.refresh-interval-ms=3600000",
+        "member.snapshot.max-staleness-ms=300"
+})
+class MemberSnapshotServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberSnapshotService memberSnapshotService;
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username = 'snapshotLate'").executeUpdate());
+    }
+
+    @Test
+    public void staleSnapshotFallsBackToDatabase() throws InterruptedException {
+        memberSnapshotService.refresh();
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("snapshotLate", 10)));
+
+        // 스냅샷이 아직 새것이면 스냅샷 이후의 회원은 보이지 않는다
+        assertThat(memberSnapshotService.stats().isStale()).isFalse();
+        assertThat(memberSnapshotService.findByUsername("snapshotLate")).isEmpty();
+
+        long fallbacks = memberSnapshotService.stats().getStaleFallbacks();
+        Thread.sleep(400);
+
+        assertThat(memberSnapshotService.stats().isStale()).isTrue();
+        assertThat(memberSnapshotService.findByUsername("snapshotLate")).extracting("username").containsExactly("snapshotLate");
+        assertThat(memberSnapshotService.stats().getStaleFallbacks()).isEqualTo(fallbacks + 1);
+
+        memberSnapshotService.refresh();
+        assertThat(memberSnapshotService.findByUsername("snapshotLate")).hasSize(1);
+    }
+
+    @Test
+    public void nullKeysAreEmpty() throws InterruptedException {
+        Thread.sleep(400);
+
+        // 스냅샷이 오래되어 DB 로 조회하는 경로에서도 null 은 빈 결과다
+        assertThat(memberSnapshotService.stats().isStale()).isTrue();
+        assertThat(memberSnapshotService.findById(null)).isEmpty();
+        assertThat(memberSnapshotService.findByUsername(null)).isEmpty();
+    }
+}
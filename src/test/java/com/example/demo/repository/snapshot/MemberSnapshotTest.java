@@ -0,0 +1,74 @@
+package com.example.demo.repository.snapshot;
+
+import com.example.demo.dto.MemberTeamDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSnapshotTest {
+
+    @Test
+    public void lookup(){
+        MemberSnapshot snapshot = MemberSnapshot.of(List.of(
+                new MemberTeamDto(3L, "member3", 30, 2L, "teamB"),
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "member2", 20, 1L, "teamA"),
+                new MemberTeamDto(4L, "member1", 40, null, null),
+                new MemberTeamDto(5L, null, 50, 2L, "teamB")
+        ), System.currentTimeMillis());
+
+        assertThat(snapshot.size()).isEqualTo(5);
+
+        MemberTeamDto member3 = snapshot.findById(3L).orElseThrow();
+        assertThat(member3.getUsername()).isEqualTo("member3");
+        assertThat(member3.getAge()).isEqualTo(30);
+        assertThat(member3.getTeamId()).isEqualTo(2L);
+        assertThat(member3.getTeamName()).isEqualTo("teamB");
+
+        assertThat(snapshot.findById(5L).orElseThrow().getUsername()).isNull();
+        assertThat(snapshot.findById(6L)).isEmpty();
+
+        assertThat(snapshot.findByUsername("member1"))
+                .extracting("memberId")
+                .containsExactly(1L, 4L);
+        assertThat(snapshot.findByUsername("member1").get(1).getTeamId()).isNull();
+        assertThat(snapshot.findByUsername("member9")).isEmpty();
+    }
+
+    @Test
+    public void builderGrowsBuffers(){
+        MemberSnapshot.Builder builder = MemberSnapshot.builder(System.currentTimeMillis());
+        for (long id = 1; id <= 5_000; id++) {
+            builder.add(new MemberTeamDto(id, "member" + (id % 100), (int) (id % 50), id % 3 == 0 ? null : id % 3,
+                    id % 3 == 0 ? null : "team" + (id % 3)));
+        }
+        MemberSnapshot snapshot = builder.build();
+
+        assertThat(snapshot.size()).isEqualTo(5_000);
+        assertThat(snapshot.findById(4_999L).orElseThrow())
+                .isEqualTo(new MemberTeamDto(4_999L, "member99", 49, 1L, "team1"));
+        assertThat(snapshot.findByUsername("member7")).hasSize(50);
+    }
+
+    @Test
+    public void builderRejectsUnorderedIds(){
+        MemberSnapshot.Builder builder = MemberSnapshot.builder(System.currentTimeMillis());
+        builder.add(new MemberTeamDto(2L, "member2", 20, null, null));
+
+        assertThatThrownBy(() -> builder.add(new MemberTeamDto(1L, "member1", 10, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.add(new MemberTeamDto(null, "member3", 30, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void empty(){
+        MemberSnapshot snapshot = MemberSnapshot.of(List.of(), System.currentTimeMillis());
+
+        assertThat(snapshot.findById(1L)).isEmpty();
+        assertThat(snapshot.findByUsername("member1")).isEmpty();
+    }
+}
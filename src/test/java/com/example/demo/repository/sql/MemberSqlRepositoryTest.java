@@ -0,0 +1,104 @@
+package com.example.demo.repository.sql;
+
+import com.example.demo.controller.MemberController;
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberRepository;
+import com.example.demo.repository.MemberRepositoryCustom;
+import com.example.demo.repository.deadline.QueryDeadlines;
+import com.example.demo.repository.deadline.RequestDeadline;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("sql")
+@Transactional
+class MemberSqlRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired MemberRepositoryCustom memberRepositoryCustom;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberController memberController;
+    @Autowired QueryDeadlines queryDeadlines;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("sqlTeamA");
+        Team teamB = new Team("sqlTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("sqlMember1", 10, teamA));
+        em.persist(new Member("sqlMember2", 20, teamA));
+        em.persist(new Member("sqlMember3", 30, teamB));
+        em.persist(new Member("sqlMember4", 40, teamB));
+
+        // JDBC 로 직접 조회하므로 영속성 컨텍스트 내용을 먼저 반영
+        em.flush();
+    }
+
+    @Test
+    public void primaryImplementation(){
+        assertThat(memberRepositoryCustom).isInstanceOf(MemberSqlRepository.class);
+        assertThat(ReflectionTestUtils.getField(memberController, "memberRepository")).isInstanceOf(MemberSqlRepository.class);
+    }
+
+    @Test
+    public void search(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+        condition.setAgeLoe(40);
+        condition.setTeamName("sqlTeamB");
+
+        List<MemberTeamDto> results = memberRepositoryCustom.search(condition);
+
+        assertThat(results).extracting("username").containsExactly("sqlMember3", "sqlMember4");
+        assertThat(results).isEqualTo(memberRepository.search(condition));
+    }
+
+    @Test
+    public void searchPageComplex(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sqlTeamA");
+
+        Page<MemberTeamDto> page = memberRepositoryCustom.searchPageComplex(condition, PageRequest.of(0, 1));
+
+        assertThat(page.getContent()).extracting("username").containsExactly("sqlMember1");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void expiredDeadline() throws InterruptedException {
+        long before = queryDeadlines.stats().getExpiredBeforeQuery();
+        RequestDeadline deadline = queryDeadlines.begin(1L);
+        try {
+            Thread.sleep(5);
+
+            assertThatThrownBy(() -> memberRepositoryCustom.search(new MemberSearchCondition()))
+                    .isInstanceOf(QueryTimeoutException.class);
+            assertThatThrownBy(() -> memberRepositoryCustom.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 1)))
+                    .isInstanceOf(QueryTimeoutException.class);
+            assertThat(queryDeadlines.stats().getExpiredBeforeQuery()).isEqualTo(before + 2);
+        } finally {
+            queryDeadlines.end(deadline);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.repository.support;
+
+import com.example.demo.entity.Member;
+import com.example.demo.entity.QMember;
+import com.example.demo.entity.Team;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.example.demo.entity.QMember.member;
+import static com.querydsl.jpa.JPAExpressions.select;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SubQueryInlinerTest {
+
+    @Autowired
+    EntityManager em;
+
+    JPAQueryFactory query;
+    SubQueryInliner inliner;
+
+    QMember memberSub = new QMember("memberSub");
+
+    @BeforeEach
+    public void before(){
+        query = new JPAQueryFactory(em);
+        inliner = new SubQueryInliner(em);
+
+        // 다른 테스트가 커밋한 데이터와 섞이지 않도록 비운다 (롤백됨)
+        em.createQuery("delete from Member").executeUpdate();
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void subQuery(){
+        Predicate predicate = inliner.inline(member.age.eq(
+                select(memberSub.age.max())
+                        .from(memberSub)));
+
+        assertThat(predicate.toString()).doesNotContain("memberSub");
+
+        List<Member> result = query.selectFrom(member)
+                .where(predicate)
+                .fetch();
+
+        assertThat(result).extracting("age").containsExactly(40);
+    }
+
+    @Test
+    public void subQueryGoe(){
+        Predicate predicate = inliner.inline(member.age.goe(
+                select(memberSub.age.avg())
+                        .from(memberSub)));
+
+        assertThat(predicate.toString()).doesNotContain("memberSub");
+
+        List<Member> result = query.selectFrom(member)
+                .where(predicate)
+                .fetch();
+
+        assertThat(result).extracting("age").containsExactly(30, 40);
+    }
+
+    @Test
+    public void subQueryIn(){
+        Predicate predicate = inliner.inline(member.age.in(
+                select(memberSub.age)
+                        .from(memberSub)
+                        .where(memberSub.age.gt(10))));
+
+        assertThat(predicate.toString()).doesNotContain("memberSub");
+
+        List<Member> result = query.selectFrom(member)
+                .where(predicate)
+                .fetch();
+
+        assertThat(result).extracting("age").containsExactly(20, 30, 40);
+    }
+
+    @Test
+    public void tooManyInValuesIsKept(){
+        Predicate subQueryIn = member.age.in(
+                select(memberSub.age)
+                        .from(memberSub)
+                        .where(memberSub.age.gt(10)));
+
+        Predicate predicate = new SubQueryInliner(em, 2).inline(subQueryIn);
+
+        assertThat(predicate).isEqualTo(subQueryIn);
+
+        List<Member> result = query.selectFrom(member)
+                .where(predicate)
+                .fetch();
+
+        assertThat(result).extracting("age").containsExactly(20, 30, 40);
+    }
+
+    @Test
+    public void selectSubQuery(){
+        Expression<Double> avgAge = inliner.inline(
+                select(memberSub.age.avg())
+                        .from(memberSub));
+
+        assertThat(avgAge.toString()).doesNotContain("memberSub");
+
+        List<Tuple> result = query.select(member.username, avgAge)
+                .from(member)
+                .fetch();
+
+        assertThat(result).hasSize(4);
+        assertThat(result).allSatisfy(tuple ->
+                assertThat(((Number) tuple.get(1, Object.class)).doubleValue()).isEqualTo(25.0));
+    }
+
+    @Test
+    public void correlatedSubQueryIsKept(){
+        Predicate correlated = member.age.eq(
+                select(memberSub.age.max())
+                        .from(memberSub)
+                        .where(memberSub.team.eq(member.team)));
+
+        Predicate predicate = inliner.inline(correlated);
+
+        assertThat(predicate).isEqualTo(correlated);
+
+        List<Member> result = query.selectFrom(member)
+                .where(predicate)
+                .fetch();
+
+        assertThat(result).extracting("age").containsExactly(20, 40);
+    }
+
+    @Test
+    public void inlineQuery(){
+        List<Tuple> result = inliner.inline(query
+                        .select(member.username, select(memberSub.age.avg()).from(memberSub))
+                        .from(member)
+                        .where(member.age.goe(select(memberSub.age.avg()).from(memberSub))))
+                .fetch();
+
+        assertThat(result).extracting(tuple -> tuple.get(0, String.class)).containsExactlyInAnyOrder("member3", "member4");
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.repository.writebehind;
+
+import com.example.demo.dto.MemberSearchCondition;
+import com.example.demo.dto.MemberTeamDto;
+import com.example.demo.entity.Member;
+import com.example.demo.entity.MemberWriteCheckpoint;
+import com.example.demo.entity.MemberWriteDeadLetter;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.MemberRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * flush 주기를 길게 두고 테스트에서 직접 flush 한다. 저널은 테스트마다 새 임시 디렉터리에 둔다
+ */
+@SpringBootTest(properties = {
+        "member.write-behind.enabled=true",
+        "member.write-behind.capacity=5",
+        "member.write-behind.batch-size=100",
+        "member.write-behind.flush-interval-ms=600000"
+})
+class MemberWriteBehindBufferTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("member.write-behind.journal-path", () -> journalDir.resolve("member-write-behind.journal").toString());
+    }
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberWriteBehindBuffer memberWriteBehindBuffer;
+
+    Team teamWriteBehind;
+    MemberSearchCondition condition;
+
+    @BeforeEach
+    public void before(){
+        teamWriteBehind = transactionTemplate.execute(status -> {
+            Team team = new Team("teamWriteBehind");
+            em.persist(team);
+            return team;
+        });
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("teamWriteBehind");
+    }
+
+    @AfterEach
+    public void after(){
+        memberWriteBehindBuffer.flush();
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", teamWriteBehind.getId())
+                    .executeUpdate();
+            em.createQuery("delete from Member m where m.username like 'replay%'").executeUpdate();
+            em.createQuery("delete from MemberWriteDeadLetter d").executeUpdate();
+            em.createQuery("delete from Team t where t.id = :teamId")
+                    .setParameter("teamId", teamWriteBehind.getId())
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void batchedInsertAndAgeUpdate(){
+        for (int i = 0; i < 3; i++) {
+            assertThat(memberWriteBehindBuffer.offer(new Member("writeBehind" + i, 10 + i, teamWriteBehind))).isTrue();
+        }
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        memberWriteBehindBuffer.flush();
+
+        List<MemberTeamDto> results = memberRepository.search(condition);
+        assertThat(results).extracting("username").containsExactly("writeBehind0", "writeBehind1", "writeBehind2");
+
+        Long memberId = results.get(0).getMemberId();
+        memberWriteBehindBuffer.offerAgeUpdate(memberId, 50);
+        memberWriteBehindBuffer.offerAgeUpdate(memberId, 60);
+        memberWriteBehindBuffer.flush();
+
+        assertThat(memberRepository.findById(memberId).orElseThrow().getAge()).isEqualTo(60);
+        assertThat(memberWriteBehindBuffer.stats().getQueueDepth()).isZero();
+    }
+
+    @Test
+    public void rejectWhenFull(){
+        for (int i = 0; i < 5; i++) {
+            assertThat(memberWriteBehindBuffer.offer(new Member("writeBehind" + i, i, teamWriteBehind))).isTrue();
+        }
+
+        long rejected = memberWriteBehindBuffer.stats().getRejected();
+        assertThat(memberWriteBehindBuffer.offer(new Member("overflow", 0, teamWriteBehind))).isFalse();
+        assertThat(memberWriteBehindBuffer.stats().getRejected()).isEqualTo(rejected + 1);
+        assertThat(memberWriteBehindBuffer.stats().getQueueDepth()).isEqualTo(5);
+
+        memberWriteBehindBuffer.flush();
+        assertThat(memberWriteBehindBuffer.offer(new Member("overflow", 0, teamWriteBehind))).isTrue();
+    }
+
+    @Test
+    public void failedWriteIsDeadLettered(){
+        Team missing = new Team("missing");
+        missing.setId(-1L);
+        long deadLettered = memberWriteBehindBuffer.stats().getDeadLettered();
+
+        assertThat(memberWriteBehindBuffer.offer(new Member("writeBehind0", 10, teamWriteBehind))).isTrue();
+        assertThat(memberWriteBehindBuffer.offer(new Member("writeBehindMissingTeam", 20, missing))).isTrue();
+        assertThat(memberWriteBehindBuffer.offer(new Member("writeBehind1", 30, teamWriteBehind))).isTrue();
+        memberWriteBehindBuffer.flush();
+
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("writeBehind0", "writeBehind1");
+        assertThat(memberWriteBehindBuffer.stats().getDeadLettered()).isEqualTo(deadLettered + 1);
+        assertThat(memberWriteBehindBuffer.stats().getQueueDepth()).isZero();
+        List<MemberWriteDeadLetter> deadLetters = transactionTemplate.execute(status ->
+                em.createQuery("select d from MemberWriteDeadLetter d", MemberWriteDeadLetter.class).getResultList());
+        assertThat(deadLetters).extracting("username").containsExactly("writeBehindMissingTeam");
+        assertThat(deadLetters.get(0).getTeamId()).isEqualTo(-1L);
+    }
+
+    /**
+     * 첫 INSERT 는 DB 에 커밋됐지만 저널 checkpoint 를 쓰기 전에 멈춘 상황. 재시작하면 두 번째만 다시 반영해야 한다
+     */
+    @Test
+    public void replaySkipsCommittedWrites() throws Exception {
+        Path path = journalDir.resolve("replay.journal");
+        try (MemberWriteJournal journal = new MemberWriteJournal(path, false)) {
+            journal.append(MemberWrite.insert(1, "replay0", 10, teamWriteBehind.getId()));
+            journal.append(MemberWrite.insert(2, "replay1", 20, teamWriteBehind.getId()));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Member committed = new Member("replay0", 10);
+            committed.setTeam(em.getReference(Team.class, teamWriteBehind.getId()));
+            em.persist(committed);
+            em.persist(new MemberWriteCheckpoint(path.toAbsolutePath().normalize().toString(), 1));
+        });
+
+        MemberWriteBehindBuffer restarted = new MemberWriteBehindBuffer(em, queryFactory, transactionManager,
+                5, 100, 600_000, path.toString(), false);
+        restarted.start();
+        try {
+            assertThat(restarted.stats().getQueueDepth()).isEqualTo(1);
+            restarted.flush();
+        } finally {
+            restarted.stop();
+        }
+
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("replay0", "replay1");
+    }
+}